@@ -7,6 +7,7 @@ import entities.HDBOfficer;
 import enums.FlatType;
 import enums.VisibilityStatus;
 import filters.ProjectFilter;
+import filters.ProjectPage;
 import services.ProjectService;
 
 import java.time.LocalDate;
@@ -27,6 +28,19 @@ public class ProjectController {
         return projectService.getProjectsForApplicant(applicant, filter);
     }
 
+    public ProjectPage getProjectPageForApplicants(Applicant applicant, ProjectFilter filter,
+                                                   ProjectPage.Cursor after, int pageSize) {
+        return projectService.getProjectPageForApplicant(applicant, filter, after, pageSize);
+    }
+
+    public List<String> suggestProjectNames(Applicant applicant, String typed) {
+        return projectService.suggestProjectNames(applicant, typed);
+    }
+
+    public List<String> suggestNeighborhoods(Applicant applicant, String typed) {
+        return projectService.suggestNeighborhoods(applicant, typed);
+    }
+
     public List<BTOProject> getProjectsForOfficers(HDBOfficer officer, ProjectFilter filter) {
         return projectService.getProjectsForOfficer(officer);
     }
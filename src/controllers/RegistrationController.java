@@ -55,6 +55,13 @@ public class RegistrationController {
         return registrationService.listAllRegistrations();
     }
 
+    /**
+     * List all registrations in the given status.
+     */
+    public List<Registration> listByStatus(RegistrationStatus status) {
+        return registrationService.listByStatus(status);
+    }
+
     /**
      * List registrations by manager.
      */
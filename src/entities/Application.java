@@ -3,12 +3,16 @@ package entities;
 import enums.ApplicationStatus;
 import enums.FlatType;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Application {
     private Applicant applicant;
     private BTOProject project;
     private FlatType flatType;
     private ApplicationStatus status;
     private boolean requestWithdrawal;
+    private final List<ChangeListener<Application>> listeners = new ArrayList<>();
 
     // Constructor for creating a new application
     public Application(Applicant applicant, BTOProject project, FlatType flatType) {
@@ -52,9 +56,22 @@ public class Application {
     // Setters Methods
     public void setStatus(ApplicationStatus status) {
         this.status = status;
+        fireChanged();
     }
 
     public void setRequestWithdrawal(boolean requestWithdrawal) {
         this.requestWithdrawal = requestWithdrawal;
+        fireChanged();
+    }
+
+    // Change Tracking
+    public void addChangeListener(ChangeListener<Application> listener) {
+        listeners.add(listener);
+    }
+
+    private void fireChanged() {
+        for (ChangeListener<Application> listener : listeners) {
+            listener.onChange(this);
+        }
     }
 }
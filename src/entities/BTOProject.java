@@ -2,23 +2,45 @@ package entities;
 
 import enums.FlatType;
 import enums.VisibilityStatus;
+import utils.DailyClock;
+import utils.SearchText;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class BTOProject {
     private static final int MAX_OFFICER_SLOTS = 10; // Maximum number of officer slots that can be assigned for a project
     private String projectName;
     private String neighborhood;
-    private Map<FlatType, Integer> flatsAvailable; // Decreases every time an application is booked, increases when withdrawal is successul after booking
+    // lower-case forms the name and location filters compare against, redone on every rename
+    private String normalizedProjectName;
+    private String normalizedNeighborhood;
+    // Units left by FlatType ordinal, NOT_OFFERED for types the project does not sell. Decreases every
+    // time an application is booked, increases when withdrawal is successful after booking. Whether a
+    // type is on offer and how many units it has share one cell, changed only by compare-and-set or a
+    // single write, so a booking never sees one without the other and a count never goes below 0
+    private static final int NOT_OFFERED = -1;
+    // The unmodifiable set of flat types for every bitmask of ordinals, so getFlatTypes allocates nothing
+    private static final List<Set<FlatType>> TYPE_SETS = typeSets();
+    private final AtomicIntegerArray flatsLeft = new AtomicIntegerArray(FlatType.values().length);
     private Map<FlatType, Integer> sellingPrice;
     private VisibilityStatus visibilityStatus;
     private LocalDate openDate;
     private LocalDate closeDate;
     private int availableOfficerSlots; // Decreases every time a registration is approved
     private HDBManager manager;
+    // Fired when a field the project repositories index or store changes (not visibility, which
+    // follows the dates)
+    private final List<ChangeListener<BTOProject>> listeners = new CopyOnWriteArrayList<>();
 
     public BTOProject(String projectName,
                       String neighborhood,
@@ -31,9 +53,11 @@ public class BTOProject {
                       HDBManager manager) {
         this.projectName           = projectName;
         this.neighborhood          = neighborhood;
-        // wrap the passed-in maps in a mutable HashMap:
-        this.flatsAvailable        = new java.util.HashMap<>(flatsAvailable);
-        this.sellingPrice          = new java.util.HashMap<>(sellingPrice);
+        this.normalizedProjectName  = SearchText.normalize(projectName);
+        this.normalizedNeighborhood = SearchText.normalize(neighborhood);
+        // copy the passed-in maps: the inventory into the counters, the prices into a mutable HashMap
+        copyFlats(flatsAvailable);
+        this.sellingPrice          = new HashMap<>(sellingPrice);
         this.visibilityStatus      = visibilityStatus;
         this.openDate              = openDate;
         this.closeDate             = closeDate;
@@ -50,8 +74,37 @@ public class BTOProject {
         return neighborhood;
     }
 
+    /** The project name in lower case, as {@link SearchText#normalize} makes it. */
+    public String getNormalizedProjectName() {
+        return normalizedProjectName;
+    }
+
+    /** The neighbourhood in lower case, as {@link SearchText#normalize} makes it. */
+    public String getNormalizedNeighborhood() {
+        return normalizedNeighborhood;
+    }
+
+    /** Units left per flat type on offer, as a snapshot. */
     public Map<FlatType, Integer> getFlatsAvailable() {
-        return Collections.unmodifiableMap(flatsAvailable);
+        Map<FlatType, Integer> snapshot = new EnumMap<>(FlatType.class);
+        for (FlatType type : FlatType.values()) {
+            int left = flatsLeft.get(type.ordinal());
+            if (left != NOT_OFFERED) {
+                snapshot.put(type, left);
+            }
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /** The flat types on offer, whether or not any units are left. */
+    public Set<FlatType> getFlatTypes() {
+        int offered = 0;
+        for (FlatType type : FlatType.values()) {
+            if (flatsLeft.get(type.ordinal()) != NOT_OFFERED) {
+                offered |= 1 << type.ordinal();
+            }
+        }
+        return TYPE_SETS.get(offered);
     }
 
     public Map<FlatType, Integer> getSellingPrice() {
@@ -59,7 +112,7 @@ public class BTOProject {
     }
 
     public int getFlatsAvailableFor(FlatType flatType) {
-        return flatsAvailable.getOrDefault(flatType, 0);
+        return Math.max(flatsLeft.get(flatType.ordinal()), 0);
     }
 
     public int getSellingPriceFor(FlatType flatType) {
@@ -89,14 +142,19 @@ public class BTOProject {
     // Setter Methods
     public void setProjectName(String projectName) {
         this.projectName = projectName;
+        this.normalizedProjectName = SearchText.normalize(projectName);
+        fireChanged();
     }
 
     public void setNeighborhood(String neighborhood) {
         this.neighborhood = neighborhood;
+        this.normalizedNeighborhood = SearchText.normalize(neighborhood);
+        fireChanged();
     }
 
     public void setSellingPrice(Map<FlatType, Integer> sellingPrice) {
         this.sellingPrice = sellingPrice;
+        fireChanged();
     }
 
     public void setAvailableOfficerSlots(int availableOfficerSlots) {
@@ -104,10 +162,12 @@ public class BTOProject {
             throw new IllegalArgumentException("Invalid number of officer slots.");
         }
         this.availableOfficerSlots = availableOfficerSlots;
+        fireChanged();
     }
     
     public void setSellingPriceFor(FlatType flatType, int price) {
         sellingPrice.put(flatType, price);
+        fireChanged();
     }
 
     public void setVisibilityStatus(VisibilityStatus visibilityStatus) {
@@ -116,34 +176,68 @@ public class BTOProject {
 
     public void setOpenDate(LocalDate openDate) {
         this.openDate = openDate;
+        fireChanged();
     }
 
     public void setCloseDate(LocalDate closeDate) {
         this.closeDate = closeDate;
+        fireChanged();
     }
 
     // Other Methods
     public boolean hasFlatsAvailable(FlatType flatType) {
-        return flatsAvailable.containsKey(flatType) && flatsAvailable.get(flatType) > 0;
+        return flatsLeft.get(flatType.ordinal()) > 0;
+    }
+
+    /**
+     * Take one unit of {@code flatType}, if one is left. Safe to call from several threads at
+     * once: the count is decremented by compare-and-set, so the last unit goes to exactly one
+     * caller.
+     *
+     * @return false if the type is not on offer or sold out; nothing is changed then
+     */
+    public boolean tryReserveFlat(FlatType flatType) {
+        if (!tryTakeFlats(flatType, 1)) {
+            return false;
+        }
+        fireChanged();
+        return true;
+    }
+
+    /** Give back one unit of {@code flatType}, e.g. when a booking is withdrawn. */
+    public void releaseFlat(FlatType flatType) {
+        addFlats(flatType, 1);
     }
 
     public void addFlats(FlatType type, int count) {
         if (count < 0) throw new IllegalArgumentException("Cannot add negative number of flats.");
-        flatsAvailable.put(type, flatsAvailable.getOrDefault(type, 0) + count);
+        // a type not on offer yet starts from 0 units
+        flatsLeft.getAndUpdate(type.ordinal(), left -> Math.max(left, 0) + count);
+        fireChanged();
     }    
 
     public void removeFlats(FlatType flatType, int count) {
         if (count < 0) throw new IllegalArgumentException("Cannot remove negative number of flats.");
-        if (flatsAvailable.containsKey(flatType)) {
-            int currentCount = flatsAvailable.get(flatType);
-            if (currentCount >= count) {
-                flatsAvailable.put(flatType, currentCount - count);
-            } else {
-                throw new IllegalArgumentException("Not enough flats of type " + flatType + ". Requested: " + count + ", Available: " + currentCount);
-            }
-        } else {
+        if (flatsLeft.get(flatType.ordinal()) == NOT_OFFERED) {
             throw new IllegalArgumentException("Flat type not found.");
         }
+        if (!tryTakeFlats(flatType, count)) {
+            throw new IllegalArgumentException("Not enough flats of type " + flatType + ". Requested: " + count
+                                               + ", Available: " + getFlatsAvailableFor(flatType));
+        }
+        fireChanged();
+    }
+
+    private boolean tryTakeFlats(FlatType flatType, int count) {
+        int i = flatType.ordinal();
+        int left;
+        do {
+            left = flatsLeft.get(i);
+            if (left == NOT_OFFERED || left < count) {
+                return false;
+            }
+        } while (!flatsLeft.compareAndSet(i, left, left - count));
+        return true;
     }
 
     public boolean hasAvailableOfficerSlots() {
@@ -153,6 +247,7 @@ public class BTOProject {
     public void decreaseOfficerSlot() {
         if (availableOfficerSlots > 0) {
             availableOfficerSlots--;
+            fireChanged();
         } else {
             throw new IllegalStateException("No available officer slots.");
         }
@@ -161,14 +256,19 @@ public class BTOProject {
     public void increaseOfficerSlot() {
         if (availableOfficerSlots < MAX_OFFICER_SLOTS) {
             availableOfficerSlots++;
+            fireChanged();
         } else {
             throw new IllegalStateException("Maximum officer slots reached.");
         }
     }
     
     public boolean isOpenForApplication() {
-        LocalDate today = LocalDate.now();
-        return (today.isAfter(openDate) || today.isEqual(openDate)) && (today.isBefore(closeDate) || today.isEqual(closeDate));
+        return isOpenOn(DailyClock.system().today());
+    }
+
+    /** Whether {@code day} falls in the application window, both ends included. */
+    public boolean isOpenOn(LocalDate day) {
+        return !day.isBefore(openDate) && !day.isAfter(closeDate);
     }
 
     public void makeVisible() {
@@ -180,13 +280,49 @@ public class BTOProject {
     }
 
     public String getSummary() {
+        Set<FlatType> flatTypes = getFlatTypes();
         return String.format("Project Name: %s, Neighborhood: %s, Open Date: %s, Close Date: %s, Available Room Types: %s, Selling Price: %s",
-                projectName, neighborhood, openDate, closeDate, flatsAvailable.keySet(), sellingPrice.values());
+                projectName, neighborhood, openDate, closeDate, flatTypes,
+                flatTypes.stream().map(this::getSellingPriceFor).toList());
     }
 
     public void setFlatsAvailable(Map<FlatType, Integer> flatsAvailable) {
-        this.flatsAvailable = new HashMap<>(flatsAvailable);
+        copyFlats(flatsAvailable);
+        fireChanged();
+    }
+
+    // Sets every counter from the map, NOT_OFFERED for types missing from it. Each cell is one
+    // write, so a concurrent booking takes its unit either before the new count lands or from it
+    private void copyFlats(Map<FlatType, Integer> flatsAvailable) {
+        for (FlatType type : FlatType.values()) {
+            Integer count = flatsAvailable.get(type);
+            flatsLeft.set(type.ordinal(), count == null ? NOT_OFFERED : Math.max(count, 0));
+        }
+    }
+
+    private static List<Set<FlatType>> typeSets() {
+        FlatType[] types = FlatType.values();
+        List<Set<FlatType>> sets = new ArrayList<>(1 << types.length);
+        for (int mask = 0; mask < 1 << types.length; mask++) {
+            Set<FlatType> set = EnumSet.noneOf(FlatType.class);
+            for (FlatType type : types) {
+                if ((mask & 1 << type.ordinal()) != 0) {
+                    set.add(type);
+                }
+            }
+            sets.add(Collections.unmodifiableSet(set));
+        }
+        return sets;
     }
 
+    // Change Tracking
+    public void addChangeListener(ChangeListener<BTOProject> listener) {
+        listeners.add(listener);
+    }
 
+    private void fireChanged() {
+        for (ChangeListener<BTOProject> listener : listeners) {
+            listener.onChange(this);
+        }
+    }
 }
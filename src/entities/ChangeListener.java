@@ -0,0 +1,11 @@
+package entities;
+
+/**
+ * Callback fired after a tracked field of an entity has been modified in place.
+ * Repositories register one so that their change logs and indexes stay in step
+ * with edits made directly through the entity setters.
+ */
+@FunctionalInterface
+public interface ChangeListener<T> {
+    void onChange(T entity);
+}
@@ -3,6 +3,8 @@ package entities;
 import enums.EnquiryStatus;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Enquiry {
     private static int counter = 1;
@@ -16,6 +18,7 @@ public class Enquiry {
     private LocalDateTime lastModified;
     private LocalDateTime respondedAt = null;
     private User respondedBy = null; // User since it can be either HDBManager or HDBOfficer
+    private final List<ChangeListener<Enquiry>> listeners = new ArrayList<>();
 
     // Constructor for creating a new enquiry
     public Enquiry(Applicant applicant, BTOProject project, String content) {
@@ -95,6 +98,7 @@ public class Enquiry {
         }
         this.content = newContent;
         this.lastModified = LocalDateTime.now();
+        fireChanged();
     }
 
     public void respond(String response, User user) {
@@ -106,6 +110,7 @@ public class Enquiry {
         this.respondedAt = LocalDateTime.now();
         this.status = EnquiryStatus.CLOSED;
         this.lastModified = respondedAt;
+        fireChanged();
     }
 
     public void markDeleted() {
@@ -114,5 +119,17 @@ public class Enquiry {
         }
         this.status       = EnquiryStatus.DELETED;
         this.lastModified = LocalDateTime.now();
+        fireChanged();
+    }
+
+    // Change Tracking
+    public void addChangeListener(ChangeListener<Enquiry> listener) {
+        listeners.add(listener);
+    }
+
+    private void fireChanged() {
+        for (ChangeListener<Enquiry> listener : listeners) {
+            listener.onChange(this);
+        }
     }
 }
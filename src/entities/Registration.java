@@ -2,6 +2,8 @@ package entities;
 
 import enums.RegistrationStatus;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Registration {
     private HDBOfficer officer;
@@ -9,6 +11,7 @@ public class Registration {
     private RegistrationStatus status;
     private LocalDate submittedAt;
     private LocalDate reviewedAt;
+    private final List<ChangeListener<Registration>> listeners = new ArrayList<>();
 
     // Constructor for creating new registration
     public Registration(HDBOfficer officer, BTOProject project) {
@@ -52,9 +55,22 @@ public class Registration {
     // Setters Method(s)
     public void setStatus(RegistrationStatus status) {
         this.status = status;
+        fireChanged();
     }
 
     public void setReviewedAt(LocalDate reviewedAt) {
         this.reviewedAt = reviewedAt;
+        fireChanged();
+    }
+
+    // Change Tracking
+    public void addChangeListener(ChangeListener<Registration> listener) {
+        listeners.add(listener);
+    }
+
+    private void fireChanged() {
+        for (ChangeListener<Registration> listener : listeners) {
+            listener.onChange(this);
+        }
     }
 }
@@ -3,12 +3,16 @@ package entities;
 import enums.MaritalStatus;
 import enums.UserRole;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class User {
     private String name;
     private String nric;
     private int age;
     private MaritalStatus maritalStatus;
     private String password;
+    private final List<ChangeListener<User>> listeners = new ArrayList<>();
 
     public User(String name, String nric, int age, MaritalStatus maritalStatus, String password) {
         this.nric = nric;
@@ -42,22 +46,27 @@ public abstract class User {
     // Setter Methods
     public void setNric(String nric) {
         this.nric = nric;
+        fireChanged();
     }
 
     public void setName(String name) {
         this.name = name;
+        fireChanged();
     }
 
     public void setAge(int age) {
         this.age = age;
+        fireChanged();
     }
 
     public void setMaritalStatus(MaritalStatus maritalStatus) {
         this.maritalStatus = maritalStatus;
+        fireChanged();
     }
 
     public void setPassword(String password) {
         this.password = password;
+        fireChanged();
     }
 
     // Other Methods
@@ -68,6 +77,7 @@ public abstract class User {
     public boolean changePassword(String newPassword, String oldPassword) {
         if (validatePassword(oldPassword)) {
             this.password = newPassword;
+            fireChanged();
             return true;
         } else {
             return false;
@@ -76,4 +86,15 @@ public abstract class User {
     
     // Abstract method to be implemented by subclasses
     public abstract UserRole getRole();
+
+    // Change Tracking
+    public void addChangeListener(ChangeListener<User> listener) {
+        listeners.add(listener);
+    }
+
+    private void fireChanged() {
+        for (ChangeListener<User> listener : listeners) {
+            listener.onChange(this);
+        }
+    }
 }
@@ -0,0 +1,7 @@
+package enums;
+
+public enum DurabilityMode {
+    FSYNC_EVERY_COMMIT,
+    GROUP_COMMIT,
+    OS_BUFFERED
+}
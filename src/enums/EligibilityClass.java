@@ -0,0 +1,45 @@
+package enums;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The groups of applicants that the eligibility rules tell apart. Which projects an applicant
+ * may apply for depends only on this class and the flat types a project offers.
+ */
+public enum EligibilityClass {
+    MARRIED_21_AND_ABOVE(EnumSet.of(FlatType.TWO_ROOM, FlatType.THREE_ROOM)), // 2-Room and 3-Room
+    SINGLE_35_AND_ABOVE(EnumSet.of(FlatType.TWO_ROOM)),                       // 2-Room only
+    NOT_ELIGIBLE(EnumSet.noneOf(FlatType.class));
+
+    private final Set<FlatType> flatTypes;
+
+    EligibilityClass(Set<FlatType> flatTypes) {
+        this.flatTypes = flatTypes;
+    }
+
+    public static EligibilityClass of(MaritalStatus maritalStatus, int age) {
+        if (maritalStatus == MaritalStatus.MARRIED && age >= 21) {
+            return MARRIED_21_AND_ABOVE;
+        }
+        if (maritalStatus == MaritalStatus.SINGLE && age >= 35) {
+            return SINGLE_35_AND_ABOVE;
+        }
+        return NOT_ELIGIBLE;
+    }
+
+    public boolean canApplyFor(FlatType flatType) {
+        return flatTypes.contains(flatType);
+    }
+
+    /** True if one of {@code offered} is a flat type this class may apply for. */
+    public boolean canApplyForAnyOf(Collection<FlatType> offered) {
+        for (FlatType type : offered) {
+            if (flatTypes.contains(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,5 +4,8 @@ public enum SortOption {
     PROJECT_ASC,
     PROJECT_DESC,
     LOCATION_ASC,
-    LOCATION_DESC
-} 
+    LOCATION_DESC,
+    PRICE_ASC,          // cheapest first; by the filtered flat type's price, else the lowest price
+    AVAILABILITY_DESC,  // most units left first; of the filtered flat type, else in total
+    CLOSING_DATE_ASC    // closing soonest first
+}
@@ -1,13 +1,23 @@
 package filters;
 
 import entities.BTOProject;
+import enums.EligibilityClass;
 import enums.FlatType;
 import enums.SortOption;
+import utils.SearchText;
 
 public class ProjectFilter {
     private String projectName;
     private String location;
+    // lower-case forms of the two queries, computed once when they are set
+    private String normalizedProjectName;
+    private String normalizedLocation;
     private FlatType flatType;
+    // bounds on the price and units left of a flat type (the filtered one, or any); null when unbounded
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Integer minUnits;
+    private EligibilityClass eligibilityClass; // only projects this class may apply for; null for all
     private SortOption sortBy;
     
     public ProjectFilter() {
@@ -27,23 +37,93 @@ public class ProjectFilter {
         return flatType;
     }
 
+    public Integer getMinPrice() {
+        return minPrice;
+    }
+
+    public Integer getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Integer getMinUnits() {
+        return minUnits;
+    }
+
+    public EligibilityClass getEligibilityClass() {
+        return eligibilityClass;
+    }
+
+    public boolean hasRangeCriteria() {
+        return minPrice != null || maxPrice != null || minUnits != null;
+    }
+
     public SortOption getSortBy() {
         return sortBy;
     }
 
+    /** The project name query in lower case, or null if not filtering by name. */
+    public String getNormalizedProjectName() {
+        return normalizedProjectName;
+    }
+
+    /** The location query in lower case, or null if not filtering by location. */
+    public String getNormalizedLocation() {
+        return normalizedLocation;
+    }
+
     // Setter Methods
     public void setProjectName(String projectName) {
         this.projectName = projectName;
+        this.normalizedProjectName = projectName == null ? null : SearchText.normalize(projectName);
     }
 
     public void setLocation(String location) {
         this.location = location;
+        this.normalizedLocation = location == null ? null : SearchText.normalize(location);
     }
 
     public void setFlatType(FlatType flatType) {
         this.flatType = flatType;
     }
 
+    public void setMinPrice(Integer minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public void setMaxPrice(Integer maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public void setMinUnits(Integer minUnits) {
+        this.minUnits = minUnits;
+    }
+
+    /**
+     * A copy of this filter that also keeps only the projects {@code eligibilityClass} may
+     * apply for. The filter itself is shared by all users, so it is left unchanged.
+     */
+    public ProjectFilter withEligibilityClass(EligibilityClass eligibilityClass) {
+        ProjectFilter copy = new ProjectFilter();
+        copy.setProjectName(projectName);
+        copy.setLocation(location);
+        copy.flatType = flatType;
+        copy.minPrice = minPrice;
+        copy.maxPrice = maxPrice;
+        copy.minUnits = minUnits;
+        copy.eligibilityClass = eligibilityClass;
+        copy.sortBy = sortBy;
+        return copy;
+    }
+
+    /**
+     * The filter's current settings as an immutable value, with the text queries in lower case.
+     * Two filters that select and order the same projects have equal keys.
+     */
+    public Key key() {
+        return new Key(normalizedProjectName, normalizedLocation, flatType, minPrice, maxPrice, minUnits,
+                       eligibilityClass, sortBy);
+    }
+
     public void setSortBy(SortOption sortBy) {
         this.sortBy = sortBy;
     }
@@ -52,22 +132,49 @@ public class ProjectFilter {
     public boolean matches(BTOProject project) {
         boolean match = true;
 
-        if (projectName != null && !project.getProjectName().toLowerCase().contains(projectName.toLowerCase())) {
+        if (projectName != null && !project.getNormalizedProjectName().contains(normalizedProjectName)) {
+            match = false;
+        }
+
+        if (location != null && !project.getNormalizedNeighborhood().contains(normalizedLocation)) {
             match = false;
         }
 
-        if (location != null && !project.getNeighborhood().toLowerCase().contains(location.toLowerCase())) {
+        if (flatType != null && !project.getFlatTypes().contains(flatType)) {
             match = false;
         }
 
-        if (flatType != null && !project.getFlatsAvailable().containsKey(flatType)) {
+        if (eligibilityClass != null && !eligibilityClass.canApplyForAnyOf(project.getFlatTypes())) {
             match = false;
         }
 
+        if (hasRangeCriteria()) {
+            boolean inRange = false;
+            for (FlatType type : project.getFlatTypes()) {
+                if ((flatType == null || type == flatType) && isWithinRanges(project, type)) {
+                    inRange = true;
+                }
+            }
+            if (!inRange) {
+                match = false;
+            }
+        }
+
         return match;
     }
 
+    private boolean isWithinRanges(BTOProject project, FlatType type) {
+        int price = project.getSellingPriceFor(type);
+        return (minPrice == null || price >= minPrice)
+            && (maxPrice == null || price <= maxPrice)
+            && (minUnits == null || project.getFlatsAvailableFor(type) >= minUnits);
+    }
+
     public boolean filter(BTOProject project) {
         return matches(project);
     }
+
+    public record Key(String projectName, String location, FlatType flatType, Integer minPrice, Integer maxPrice,
+                      Integer minUnits, EligibilityClass eligibilityClass, SortOption sortBy) {
+    }
 }
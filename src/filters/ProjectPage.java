@@ -0,0 +1,55 @@
+package filters;
+
+import entities.BTOProject;
+import enums.SortOption;
+
+import java.util.List;
+
+/**
+ * One screen of a filtered project listing, and where the next one starts.
+ */
+public class ProjectPage {
+    private final List<BTOProject> projects;
+    private final Cursor next;
+
+    public ProjectPage(List<BTOProject> projects, Cursor next) {
+        this.projects = List.copyOf(projects);
+        this.next = next;
+    }
+
+    // Getter Methods
+    public List<BTOProject> getProjects() {
+        return projects;
+    }
+
+    /** Cursor for the following page, or null if this is the last one. */
+    public Cursor getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * Position just after the last project of a page, in the listing's sort order.
+     * The position itself is only meaningful to the repository that produced it.
+     */
+    public static final class Cursor {
+        private final SortOption sortBy;
+        private final Object position;
+
+        public Cursor(SortOption sortBy, Object position) {
+            this.sortBy = sortBy;
+            this.position = position;
+        }
+
+        public SortOption getSortBy() {
+            return sortBy;
+        }
+
+        public Object getPosition() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package indexes;
+
+/**
+ * Hash map from primitive int keys to objects, without boxing the keys.
+ *
+ * Open addressing with linear probing over parallel key/value arrays whose capacity is a power
+ * of two; the table doubles once it is half full. A null value marks an empty slot, so null
+ * values are not allowed. Entries cannot be removed.
+ */
+public final class IntObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int shift; // 32 - log2(capacity)
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of entries the map should hold without resizing
+     */
+    public IntObjectMap(int expectedSize) {
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** @return the value for {@code key}, or null if there is none */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associate {@code value} with {@code key}.
+     * @return the previous value, or null if there was none
+     */
+    public V put(int key, V value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Associate {@code value} with {@code key} unless the key already has a value.
+     * @return the existing value, or null if {@code value} was added
+     */
+    public V putIfAbsent(int key, V value) {
+        return insert(key, value, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V insert(int key, V value, boolean replace) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntObjectMap does not accept null values");
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object existing = values[i];
+            if (existing == null) {
+                keys[i]   = key;
+                values[i] = value;
+                if (++size > keys.length / 2) {
+                    resize();
+                }
+                return null;
+            }
+            if (keys[i] == key) {
+                if (replace) {
+                    values[i] = value;
+                }
+                return (V) existing;
+            }
+        }
+    }
+
+    // Fibonacci hashing: spreads sequential ids over the whole table
+    private int slot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private void allocate(int capacity) {
+        keys   = new int[capacity];
+        values = new Object[capacity];
+        shift  = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(keys.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j]);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i]   = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
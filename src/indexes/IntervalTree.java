@@ -0,0 +1,197 @@
+package indexes;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closed intervals {@code [start, end]}, one per item, answering which intervals overlap a
+ * given window or contain a given point.
+ *
+ * The intervals are kept in an AVL tree ordered by start (then by insertion, so equal starts
+ * keep the order they were added in), and every node also records the largest end in its
+ * subtree. A query skips any subtree whose largest end is before the window, and everything
+ * right of a node that starts after it, so it visits a path of O(log n) nodes plus the
+ * subtrees that hold matches. Results come in order of start.
+ *
+ * An interval {@code [start, end]} matches a window {@code [from, to]} when {@code start <= to}
+ * and {@code end >= from}, the usual overlap test. Intervals and windows whose end comes before
+ * their start are accepted and matched by the same test, so an index built on this tree
+ * answers exactly like a scan that applies it to every item.
+ *
+ * Items are compared by identity; each item has at most one interval.
+ */
+public final class IntervalTree<K extends Comparable<? super K>, T> {
+    private final Map<T, Node<K, T>> nodes = new IdentityHashMap<>();
+    private Node<K, T> root;
+    private long nextSeq;
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /** Index {@code item} under {@code [start, end]}, replacing the interval it had before. */
+    public void put(T item, K start, K end) {
+        remove(item);
+        Node<K, T> node = new Node<>(item, start, end, nextSeq++);
+        nodes.put(item, node);
+        root = insert(root, node);
+    }
+
+    public void remove(T item) {
+        Node<K, T> node = nodes.remove(item);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /** Every item whose interval overlaps {@code [from, to]}, by the test above. */
+    public List<T> overlapping(K from, K to) {
+        List<T> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    /** Every item whose interval contains {@code point}. */
+    public List<T> containing(K point) {
+        return overlapping(point, point);
+    }
+
+    private static <K extends Comparable<? super K>, T> void collect(Node<K, T> node, K from, K to, List<T> result) {
+        if (node == null || node.maxEnd.compareTo(from) < 0) {
+            return; // every interval here ends before the window starts
+        }
+        collect(node.left, from, to, result);
+        if (node.start.compareTo(to) > 0) {
+            return; // this one and everything right of it starts after the window ends
+        }
+        if (node.end.compareTo(from) >= 0) {
+            result.add(node.item);
+        }
+        collect(node.right, from, to, result);
+    }
+
+    private static <K extends Comparable<? super K>, T> int compare(Node<K, T> a, Node<K, T> b) {
+        int byStart = a.start.compareTo(b.start);
+        return byStart != 0 ? byStart : Long.compare(a.seq, b.seq);
+    }
+
+    private static <K extends Comparable<? super K>, T> Node<K, T> insert(Node<K, T> node, Node<K, T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private static <K extends Comparable<? super K>, T> Node<K, T> delete(Node<K, T> node, Node<K, T> removed) {
+        if (node == null) {
+            return null;
+        }
+        if (node != removed) {
+            if (compare(removed, node) < 0) {
+                node.left = delete(node.left, removed);
+            } else {
+                node.right = delete(node.right, removed);
+            }
+            return balance(node);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // replace the node by its successor, the leftmost node of the right subtree
+        Node<K, T> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        successor.right = deleteLeftmost(node.right);
+        successor.left  = node.left;
+        return balance(successor);
+    }
+
+    private static <K extends Comparable<? super K>, T> Node<K, T> deleteLeftmost(Node<K, T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteLeftmost(node.left);
+        return balance(node);
+    }
+
+    private static <K extends Comparable<? super K>, T> Node<K, T> balance(Node<K, T> node) {
+        node.update();
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static <K extends Comparable<? super K>, T> Node<K, T> rotateRight(Node<K, T> node) {
+        Node<K, T> top = node.left;
+        node.left = top.right;
+        top.right = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    private static <K extends Comparable<? super K>, T> Node<K, T> rotateLeft(Node<K, T> node) {
+        Node<K, T> top = node.right;
+        node.right = top.left;
+        top.left = node;
+        node.update();
+        top.update();
+        return top;
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node<K extends Comparable<? super K>, T> {
+        private final T item;
+        private final K start;
+        private final K end;
+        private final long seq;
+        private K maxEnd; // largest end in this subtree
+        private int height = 1;
+        private Node<K, T> left;
+        private Node<K, T> right;
+
+        Node(T item, K start, K end, long seq) {
+            this.item   = item;
+            this.start  = start;
+            this.end    = end;
+            this.seq    = seq;
+            this.maxEnd = end;
+        }
+
+        void update() {
+            height = 1 + Math.max(IntervalTree.height(left), IntervalTree.height(right));
+            maxEnd = end;
+            if (left != null && left.maxEnd.compareTo(maxEnd) > 0) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.compareTo(maxEnd) > 0) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package indexes;
+
+import utils.SearchText;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Trie over case-insensitive keys, for prefix completion and typo-tolerant suggestions.
+ *
+ * Every key carries the items indexed under it and the text it was first added with, which is
+ * what completions return. Children are kept in sorted arrays, so a depth-first walk visits
+ * keys in alphabetical order.
+ *
+ * {@link #suggest} follows the Levenshtein automaton idea: walking down the trie it keeps one
+ * row of the edit distance table between the query and the path so far. Extending the path by
+ * one character costs one new row, and a branch is abandoned as soon as every entry of its row
+ * exceeds the distance bound, so only a thin part of the trie is ever visited.
+ */
+public final class PrefixTrie<T> {
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    /** Number of distinct keys. */
+    public int size() {
+        return size;
+    }
+
+    public void put(String key, T item) {
+        String normalized = SearchText.normalize(key);
+        Node<T> node = root;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = node.childOrCreate(normalized.charAt(i));
+        }
+        if (node.items.isEmpty()) {
+            node.text = key;
+            size++;
+        }
+        node.items.add(item);
+    }
+
+    public void remove(String key, T item) {
+        String normalized = SearchText.normalize(key);
+        Deque<Node<T>> path = new ArrayDeque<>();
+        Node<T> node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            path.push(node);
+            node = node.child(normalized.charAt(i));
+        }
+        if (node == null || !node.items.removeIf(existing -> existing == item)) {
+            return;
+        }
+        if (!node.items.isEmpty()) {
+            return;
+        }
+        node.text = null;
+        size--;
+        // drop the branch up to the nearest node that is still needed
+        for (int i = normalized.length() - 1; i >= 0 && node.isLeaf() && node.items.isEmpty(); i--) {
+            node = path.pop();
+            node.removeChild(normalized.charAt(i));
+        }
+    }
+
+    /**
+     * Up to {@code limit} keys starting with {@code prefix}, in alphabetical order.
+     * Keys whose items are all rejected by {@code accept} are left out.
+     */
+    public List<String> complete(String prefix, int limit, Predicate<? super T> accept) {
+        String normalized = SearchText.normalize(prefix);
+        Node<T> node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.child(normalized.charAt(i));
+        }
+        List<String> keys = new ArrayList<>();
+        if (node != null) {
+            collect(node, limit, accept, keys);
+        }
+        return keys;
+    }
+
+    /**
+     * Up to {@code limit} keys that start with something at most {@code maxDistance} edits
+     * (insertions, deletions, substitutions) away from {@code query}. Keys that start with the
+     * query itself have distance 0. Ordered by distance, then alphabetically.
+     */
+    public List<String> suggest(String query, int maxDistance, int limit, Predicate<? super T> accept) {
+        String normalized = SearchText.normalize(query);
+        int[] row = new int[normalized.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        Search search = new Search(normalized, maxDistance, limit, accept);
+        search.walk(root, row, row[normalized.length()]);
+
+        List<String> keys = new ArrayList<>(limit);
+        for (List<String> bucket : search.byDistance) {
+            for (String key : bucket) {
+                if (keys.size() == limit) {
+                    return keys;
+                }
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static <T> boolean collect(Node<T> node, int limit, Predicate<? super T> accept, List<String> keys) {
+        if (keys.size() == limit) {
+            return false;
+        }
+        if (node.text != null && node.items.stream().anyMatch(accept)) {
+            keys.add(node.text);
+        }
+        for (int i = 0; i < node.size; i++) {
+            if (!collect(node.children[i], limit, accept, keys)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class Search {
+        private final String query;
+        private final int limit;
+        private final Predicate<? super T> accept;
+        private final List<List<String>> byDistance = new ArrayList<>();
+        private int bound; // largest distance that can still make it into the result
+
+        Search(String query, int maxDistance, int limit, Predicate<? super T> accept) {
+            this.query  = query;
+            this.bound  = maxDistance;
+            this.limit  = limit;
+            this.accept = accept;
+            for (int d = 0; d <= maxDistance; d++) {
+                byDistance.add(new ArrayList<>());
+            }
+        }
+
+        // best: smallest distance between the query and any prefix of the path so far
+        void walk(Node<T> node, int[] row, int best) {
+            if (node.text != null && best <= bound && node.items.stream().anyMatch(accept)) {
+                byDistance.get(best).add(node.text);
+                tightenBound();
+            }
+            for (int i = 0; i < node.size; i++) {
+                char c = node.labels[i];
+                int[] next = new int[row.length];
+                next[0] = row[0] + 1;
+                int rowMin = next[0];
+                for (int j = 1; j < row.length; j++) {
+                    int substitute = row[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                    next[j] = Math.min(substitute, Math.min(row[j] + 1, next[j - 1] + 1));
+                    rowMin = Math.min(rowMin, next[j]);
+                }
+                int childBest = Math.min(best, next[row.length - 1]);
+                // deeper keys cost at least rowMin more edits unless a prefix already matched
+                if (Math.min(childBest, rowMin) <= bound) {
+                    walk(node.children[i], next, childBest);
+                }
+                if (bound < 0) {
+                    return;
+                }
+            }
+        }
+
+        // once distances 0..d already fill the result, nothing further than d can enter it
+        private void tightenBound() {
+            int found = 0;
+            for (int d = 0; d <= bound; d++) {
+                found += byDistance.get(d).size();
+                if (found >= limit) {
+                    // keys at distance 0 come in alphabetical order, so a full bucket 0 is final
+                    bound = d == 0 ? -1 : d;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Node<T> {
+        private static final char[] NO_LABELS = new char[0];
+
+        private char[] labels = NO_LABELS;
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = (Node<T>[]) new Node<?>[0];
+        private int size;
+        private String text; // the key ending here as first added, null if no key ends here
+        private final List<T> items = new ArrayList<>(1);
+
+        Node<T> child(char c) {
+            int i = Arrays.binarySearch(labels, 0, size, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node<T> childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, 0, size, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            if (size == labels.length) {
+                int capacity = Math.max(2, size * 2);
+                labels   = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, at, labels, at + 1, size - at);
+            System.arraycopy(children, at, children, at + 1, size - at);
+            Node<T> child = new Node<>();
+            labels[at]   = c;
+            children[at] = child;
+            size++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(labels, 0, size, c);
+            if (i >= 0) {
+                System.arraycopy(labels, i + 1, labels, i, size - i - 1);
+                System.arraycopy(children, i + 1, children, i, size - i - 1);
+                size--;
+                children[size] = null;
+            }
+        }
+
+        boolean isLeaf() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package indexes;
+
+import utils.SearchText;
+
+import java.util.*;
+
+/**
+ * Inverted index answering case-insensitive substring queries over one text per item.
+ *
+ * Each item's text is lower-cased once, when it is added, and every three-character window of
+ * it is recorded in a posting set. A query of three or more characters can only match items
+ * that contain all of its trigrams, so the posting sets of those trigrams are intersected,
+ * smallest first, and only the surviving candidates are checked with {@code contains}. Shorter
+ * queries have no trigram and are checked against every item's cached text.
+ *
+ * Items are compared by identity. Texts are lower-cased with {@link SearchText#normalize};
+ * queries must already be normalized with it.
+ */
+public final class TrigramIndex<T> {
+    private final Map<T, String> texts = new IdentityHashMap<>();
+    private final Map<Long, Set<T>> postings = new HashMap<>();
+
+    public int size() {
+        return texts.size();
+    }
+
+    /** Index {@code item} under {@code text}, replacing the text it was indexed under before. */
+    public void put(T item, String text) {
+        remove(item);
+        String normalized = SearchText.normalize(text);
+        texts.put(item, normalized);
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            postings.computeIfAbsent(trigram(normalized, i), t -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                    .add(item);
+        }
+    }
+
+    public void remove(T item) {
+        String normalized = texts.remove(item);
+        if (normalized == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            Long key = trigram(normalized, i);
+            Set<T> posting = postings.get(key);
+            if (posting != null && posting.remove(item) && posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Every item whose text contains {@code query}.
+     *
+     * @param query the substring to look for, already {@link SearchText#normalize normalized}
+     * @return an identity set of the matching items
+     */
+    public Set<T> matching(String query) {
+        Set<T> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (query.length() < 3) {
+            for (Map.Entry<T, String> entry : texts.entrySet()) {
+                if (entry.getValue().contains(query)) {
+                    result.add(entry.getKey());
+                }
+            }
+            return result;
+        }
+
+        List<Set<T>> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            Set<T> posting = postings.get(trigram(query, i));
+            if (posting == null) {
+                return result; // some trigram occurs nowhere
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<T> smallest = lists.get(0);
+        candidates:
+        for (T item : smallest) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(item)) {
+                    continue candidates;
+                }
+            }
+            // all trigrams present, but not necessarily next to each other
+            if (texts.get(item).contains(query)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private static Long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
@@ -0,0 +1,131 @@
+package main;
+
+import entities.Applicant;
+import entities.HDBManager;
+import entities.HDBOfficer;
+import entities.User;
+import enums.MaritalStatus;
+import repositories.CsvUserRepository;
+import services.AuthService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Measures login latency against a large user directory.
+ *
+ * Builds an in-memory {@link CsvUserRepository} of generated users (1,000,000 by default, or
+ * the count given as the first argument; nothing is read from or written to data/), then
+ * times {@link AuthService#authenticateUser} for random existing users, for unknown NRICs and
+ * for wrong passwords, and prints the median, 99th percentile and mean of each. For contrast
+ * it also times a few logins done the old way, by scanning {@code findAll()}.
+ *
+ * Run with: java -cp out main.LoginBenchmark [users]
+ */
+public final class LoginBenchmark {
+    private static final int WARMUP_LOGINS = 200_000;
+    private static final int TIMED_LOGINS  = 100_000;
+    private static final int SCAN_LOGINS   = 50;
+
+    private LoginBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        CsvUserRepository repo = new CsvUserRepository(generateUsers(users));
+        AuthService auth = new AuthService(repo);
+        System.out.printf("Directory of %,d users built in %.1f ms%n", users, (System.nanoTime() - start) / 1e6);
+
+        // let the JIT compile the login path before anything is timed
+        for (int i = 0; i < WARMUP_LOGINS; i++) {
+            login(auth, nric(random.nextInt(users)), "password");
+        }
+
+        report("existing user", time(nrics(random, TIMED_LOGINS, 0, users), n -> login(auth, n, "password")));
+        report("unknown NRIC", time(nrics(random, TIMED_LOGINS, users, users), n -> login(auth, n, "password")));
+        report("wrong password", time(nrics(random, TIMED_LOGINS, 0, users), n -> login(auth, n, "wrong")));
+        report("findAll() scan", time(nrics(random, SCAN_LOGINS, 0, users), n -> scanLogin(repo.findAll(), n, "password")));
+    }
+
+    // Mostly applicants, with officers and managers mixed in as in the real files
+    private static List<User> generateUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        MaritalStatus[] statuses = MaritalStatus.values();
+        for (int i = 0; i < count; i++) {
+            String name = "User" + i;
+            int age = 21 + i % 50;
+            MaritalStatus status = statuses[i % statuses.length];
+            if (i % 100 == 0) {
+                users.add(new HDBManager(name, nric(i), age, status, "password"));
+            } else if (i % 10 == 0) {
+                users.add(new HDBOfficer(name, nric(i), age, status, "password"));
+            } else {
+                users.add(new Applicant(name, nric(i), age, status, "password"));
+            }
+        }
+        return users;
+    }
+
+    // NRICs to log in with, made before the clock starts: users from..from+range-1 at random
+    private static String[] nrics(Random random, int count, int from, int range) {
+        String[] nrics = new String[count];
+        for (int i = 0; i < count; i++) {
+            nrics[i] = nric(from + random.nextInt(range));
+        }
+        return nrics;
+    }
+
+    private static String nric(int i) {
+        return String.format("S%08dA", i);
+    }
+
+    private static boolean login(AuthService auth, String nric, String password) {
+        return auth.authenticateUser(nric, password) != null;
+    }
+
+    // The login as it was before the directory was indexed
+    private static boolean scanLogin(List<User> users, String nric, String password) {
+        for (User user : users) {
+            if (user.getNric().equalsIgnoreCase(nric)) {
+                return user.validatePassword(password);
+            }
+        }
+        return false;
+    }
+
+    // Nanoseconds taken by the login of each NRIC, sorted
+    private static long[] time(String[] nrics, Predicate<String> login) {
+        long[] nanos = new long[nrics.length];
+        int succeeded = 0; // consumed below, so the JIT cannot drop the logins
+        for (int i = 0; i < nrics.length; i++) {
+            long t0 = System.nanoTime();
+            if (login.test(nrics[i])) {
+                succeeded++;
+            }
+            nanos[i] = System.nanoTime() - t0;
+        }
+        if (succeeded < 0) {
+            System.out.println(succeeded);
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String name, long[] nanos) {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        System.out.printf("  %-15s %,8d logins  median %,10.2f us  p99 %,10.2f us  mean %,10.2f us%n",
+            name, nanos.length,
+            nanos[nanos.length / 2] / 1e3,
+            nanos[(int) (nanos.length * 0.99)] / 1e3,
+            total / (double) nanos.length / 1e3);
+    }
+}
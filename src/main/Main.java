@@ -1,6 +1,7 @@
 package main;
 
 import controllers.*;
+import enums.DurabilityMode;
 import filters.ProjectFilter;
 import repositories.*;
 import services.*;
@@ -13,16 +14,30 @@ public class Main {
         // 0) Shared Scanner (auto-closed)
         try (Scanner scanner = new Scanner(System.in)) {
             
-            // 1) Repositories
-            UserRepository         userRepo    = new CsvUserRepository();
-            ProjectRepository      projectRepo = new CsvProjectRepository(userRepo);
-            CsvRegistrationRepository regRepo   = new CsvRegistrationRepository(userRepo, projectRepo);
-
-            // fix the back-reference that CsvProjectRepository needs:
-            ((CsvProjectRepository)projectRepo).setRegistrationRepository(regRepo);
+            // 0b) Durability of every CSV write: -Dbto.durability=FSYNC_EVERY_COMMIT|GROUP_COMMIT|OS_BUFFERED
+            DurableFileWriter.configure(
+                DurabilityMode.valueOf(System.getProperty("bto.durability", "FSYNC_EVERY_COMMIT").toUpperCase()),
+                Long.getLong("bto.groupCommitMs", 10)
+            );
+            // opt-in background persistence: -Dbto.asyncPersist=true
+            if (Boolean.getBoolean("bto.asyncPersist")) {
+                DurableFileWriter.enableAsync(Integer.getInteger("bto.asyncQueueCapacity", 64));
+            }
 
-            ApplicationRepository  appRepo     = new CsvApplicationRepository(userRepo, projectRepo);
-            EnquiryRepository      enquiryRepo = new CsvEnquiryRepository(userRepo, projectRepo);
+            // 1) Repositories: users, then projects, then the rest in parallel
+            //    -Dbto.backend=csv (default) | jdbc, with -Dbto.jdbcUrl (default: H2 file in data/)
+            StartupOrchestrator startup = new StartupOrchestrator();
+            if ("jdbc".equalsIgnoreCase(System.getProperty("bto.backend", "csv"))) {
+                startup.loadJdbc(System.getProperty("bto.jdbcUrl", JdbcDatabase.DEFAULT_URL));
+            } else {
+                startup.load();
+            }
+            UserRepository         userRepo    = startup.getUserRepository();
+            ProjectRepository      projectRepo = startup.getProjectRepository();
+            RegistrationRepository regRepo     = startup.getRegistrationRepository();
+            ApplicationRepository  appRepo     = startup.getApplicationRepository();
+            EnquiryRepository      enquiryRepo = startup.getEnquiryRepository();
+            startup.printTimeline();
 
             // 2) Services
             AuthService            authService          = new AuthService(userRepo);
@@ -32,7 +47,8 @@ public class Main {
             ProjectService         projectService       = new ProjectService(projectRepo, registrationService);
             // now “complete” the circular link
             registrationService.setProjectService(projectService);
-            EnquiryService         enquiryService       = new EnquiryService(enquiryRepo, regRepo);
+            applicationService.setProjectService(projectService);
+            EnquiryService         enquiryService       = new EnquiryService(enquiryRepo, registrationService);
 
             // 3) Controllers
             AuthController         authController  = new AuthController(authService);
@@ -61,7 +77,16 @@ public class Main {
             projectRepo.persist();
             regRepo.persist();
             appRepo.persist();
+            appRepo.checkpoint();
             enquiryRepo.persist();
+            // drains the background writer (if enabled) before the JVM exits
+            DurableFileWriter.shutdown();
+            // after the shutdown, so the snapshot fingerprints the final CSV files
+            startup.close();
+            System.out.printf("Persistence: %d writes performed, %d redundant writes avoided.%n",
+                UnitOfWork.getPerformedWrites(), UnitOfWork.getAvoidedWrites());
+            CatalogCache.Stats catalog = projectService.getCatalogCacheStats();
+            System.out.printf("Project catalog cache: %d hits, %d misses.%n", catalog.hits(), catalog.misses());
         }
     }
 }
@@ -0,0 +1,246 @@
+package main;
+
+import repositories.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Loads the repository graph, running independent repositories at the same time.
+ *
+ * Projects need the users, and registrations, applications and enquiries need both users and
+ * projects; nothing else depends on anything. So users and projects load first, after which
+ * the remaining three load in parallel, all joining against one shared {@link EntityResolver}.
+ * The project repository only needs the registrations when it writes, so it receives them as
+ * a future instead of through a setter.
+ *
+ * When a fresh {@link BinarySnapshot} exists, all of this is skipped and the repositories start
+ * from the entities in the snapshot. After a CSV load a new snapshot is written right away, so
+ * the next start is fast even if this session does not exit cleanly.
+ *
+ * With the JDBC backend the repositories are loaded from the database instead; on the first
+ * start against an empty database the CSV files are loaded as above and migrated into it, and
+ * the repositories are then loaded again from the database, so that none of the CSV
+ * repositories stays attached to the entities in use.
+ *
+ * Each load is timed so the startup timeline can be printed.
+ */
+public final class StartupOrchestrator {
+    private final long startNanos = System.nanoTime();
+    private final List<Step> timeline = new ArrayList<>();
+
+    private UserRepository userRepo;
+    private ProjectRepository projectRepo;
+    private RegistrationRepository regRepo;
+    private ApplicationRepository appRepo;
+    private EnquiryRepository enquiryRepo;
+    private long readyNanos;
+    private JdbcDatabase database;
+
+    /**
+     * Load every repository, blocking until all are ready.
+     * A failure in any loader is rethrown as it was thrown by the loader.
+     */
+    public void load() {
+        BinarySnapshot snapshot = timed("snapshot", BinarySnapshot::read);
+        if (snapshot != null) {
+            loadSnapshot(snapshot);
+        } else {
+            loadCsv();
+            // the snapshot must not depend on the journal: fold it into the CSV first
+            appRepo.checkpoint();
+            timed("write snapshot", () -> {
+                saveSnapshot();
+                return null;
+            });
+        }
+        readyNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Load every repository from the database at {@code url}, migrating the CSV files into it
+     * first if it is still empty.
+     */
+    public void loadJdbc(String url) {
+        database = timed("open database", () -> new JdbcDatabase(url));
+        if (database.isEmpty()) {
+            loadCsv();
+            UserRepository csvUsers = userRepo;
+            ProjectRepository csvProjects = projectRepo;
+            RegistrationRepository csvRegistrations = regRepo;
+            ApplicationRepository csvApplications = appRepo;
+            EnquiryRepository csvEnquiries = enquiryRepo;
+            loadFromDatabase();
+            timed("migrate", () -> {
+                JdbcMigrator.migrate(csvUsers, csvProjects, csvRegistrations, csvApplications, csvEnquiries,
+                    (JdbcUserRepository) userRepo, (JdbcProjectRepository) projectRepo,
+                    (JdbcRegistrationRepository) regRepo, (JdbcApplicationRepository) appRepo,
+                    (JdbcEnquiryRepository) enquiryRepo);
+                return null;
+            });
+            // the migrated entities still carry the CSV repositories' listeners: start over from the rows
+            loadFromDatabase();
+        } else {
+            loadFromDatabase();
+        }
+        readyNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Release the backend once every repository has been persisted: writes the snapshot for the
+     * CSV backend, closes the database for the JDBC backend.
+     */
+    public void close() {
+        if (database != null) {
+            database.close();
+        } else {
+            saveSnapshot();
+        }
+    }
+
+    /**
+     * Write a snapshot of the current repository contents. Call only after every repository
+     * has been persisted and the application journal checkpointed.
+     */
+    private void saveSnapshot() {
+        try {
+            DurableFileWriter.awaitPendingWrites(); // the CSV files are fingerprinted as they are on disk
+        } catch (IOException e) {
+            System.out.println("⚠️ Snapshot not written, some writes failed: " + e.getMessage());
+            return;
+        }
+        BinarySnapshot.write(userRepo, projectRepo, regRepo, appRepo, enquiryRepo);
+    }
+
+    private void loadSnapshot(BinarySnapshot snapshot) {
+        timed("from snapshot", () -> {
+            CompletableFuture<RegistrationRepository> registrations = new CompletableFuture<>();
+            userRepo    = new CsvUserRepository(snapshot.getUsers());
+            projectRepo = new CsvProjectRepository(userRepo, registrations, snapshot.getProjects());
+            regRepo     = new CsvRegistrationRepository(userRepo, projectRepo, snapshot.getRegistrations());
+            registrations.complete(regRepo);
+            appRepo     = new CsvApplicationRepository(userRepo, projectRepo, snapshot.getApplications());
+            enquiryRepo = new CsvEnquiryRepository(userRepo, projectRepo, snapshot.getEnquiries());
+            return null;
+        });
+    }
+
+    private void loadFromDatabase() {
+        userRepo    = timed("users", () -> new JdbcUserRepository(database));
+        JdbcProjectRepository projects = timed("projects", () -> new JdbcProjectRepository(database, userRepo));
+        projectRepo = projects;
+        regRepo     = timed("registrations", () -> new JdbcRegistrationRepository(database, userRepo, projects));
+        appRepo     = timed("applications", () -> new JdbcApplicationRepository(database, userRepo, projects));
+        enquiryRepo = timed("enquiries", () -> new JdbcEnquiryRepository(database, userRepo, projects));
+    }
+
+    private void loadCsv() {
+        ExecutorService pool = Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "bto-startup");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            userRepo = timed("users", CsvUserRepository::new);
+            EntityResolver users = EntityResolver.of(userRepo);
+
+            CompletableFuture<RegistrationRepository> registrations = new CompletableFuture<>();
+            projectRepo = timed("projects", () -> new CsvProjectRepository(userRepo, registrations, users));
+            EntityResolver resolver = users.withProjects(projectRepo);
+
+            CompletableFuture<RegistrationRepository> regLoad = CompletableFuture.supplyAsync(
+                () -> timed("registrations", () -> new CsvRegistrationRepository(userRepo, projectRepo, resolver)), pool);
+            CompletableFuture<ApplicationRepository> appLoad = CompletableFuture.supplyAsync(
+                () -> timed("applications", () -> new CsvApplicationRepository(userRepo, projectRepo, resolver)), pool);
+            CompletableFuture<EnquiryRepository> enquiryLoad = CompletableFuture.supplyAsync(
+                () -> timed("enquiries", () -> new CsvEnquiryRepository(userRepo, projectRepo, resolver)), pool);
+
+            regLoad.whenComplete((repo, failure) -> {
+                if (failure != null) {
+                    registrations.completeExceptionally(failure);
+                } else {
+                    registrations.complete(repo);
+                }
+            });
+
+            regRepo     = await(regLoad);
+            appRepo     = await(appLoad);
+            enquiryRepo = await(enquiryLoad);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public UserRepository getUserRepository() {
+        return userRepo;
+    }
+
+    public ProjectRepository getProjectRepository() {
+        return projectRepo;
+    }
+
+    public RegistrationRepository getRegistrationRepository() {
+        return regRepo;
+    }
+
+    public ApplicationRepository getApplicationRepository() {
+        return appRepo;
+    }
+
+    public EnquiryRepository getEnquiryRepository() {
+        return enquiryRepo;
+    }
+
+    /**
+     * Print when each repository started and finished loading, relative to the start of startup.
+     */
+    public void printTimeline() {
+        List<Step> steps;
+        synchronized (timeline) {
+            steps = new ArrayList<>(timeline);
+        }
+        steps.sort(Comparator.comparingLong(Step::start));
+
+        System.out.println("Startup timeline (ms):");
+        for (Step step : steps) {
+            System.out.printf("  %-14s %8.1f -> %8.1f  (%s)%n",
+                step.name(), step.start() / 1_000_000.0, step.end() / 1_000_000.0, step.thread());
+        }
+        System.out.printf("  %-14s %8.1f ms (%.1f ms resolving references)%n", "ready after",
+            readyNanos / 1_000_000.0, StartupMetrics.getResolutionNanos() / 1_000_000.0);
+    }
+
+    private <T> T timed(String name, Supplier<T> loader) {
+        long start = System.nanoTime() - startNanos;
+        T repo = loader.get();
+        long end = System.nanoTime() - startNanos;
+        synchronized (timeline) {
+            timeline.add(new Step(name, start, end, Thread.currentThread().getName()));
+        }
+        return repo;
+    }
+
+    private static <T> T await(CompletableFuture<T> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Step(String name, long start, long end, String thread) {
+    }
+}
@@ -0,0 +1,79 @@
+package repositories;
+
+import entities.Application;
+import entities.BTOProject;
+import enums.ApplicationStatus;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes over the applications of a repository: by applicant NRIC, by project, by
+ * status and the withdrawal requests, so queries cost O(result) rather than a scan of every
+ * application. Results keep the order the applications were added in.
+ *
+ * Applications are only ever added, so the order an application was added in is a stable
+ * position. Its applicant and project never change; the repository must call {@link #reindex}
+ * after its status or withdrawal flag does (its change listener does).
+ */
+final class ApplicationIndex {
+    private final Map<Application, Integer> positions = new IdentityHashMap<>();
+    private final Map<String, Application> byNric = new HashMap<>(); // first application per NRIC, as findByNRIC returns
+    private final Map<BTOProject, List<Application>> byProject = new IdentityHashMap<>();
+    private final Map<ApplicationStatus, NavigableMap<Integer, Application>> byStatus = new EnumMap<>(ApplicationStatus.class);
+    private final Map<Application, ApplicationStatus> indexedStatus = new IdentityHashMap<>();
+    private final NavigableMap<Integer, Application> withdrawals = new TreeMap<>();
+
+    void add(Application application) {
+        positions.put(application, positions.size());
+        byNric.putIfAbsent(application.getApplicant().getNric(), application);
+        byProject.computeIfAbsent(application.getProject(), p -> new ArrayList<>()).add(application);
+        reindex(application);
+    }
+
+    /** Move the application to the status bucket and withdrawal set matching its current state. */
+    void reindex(Application application) {
+        int position = positions.get(application);
+        ApplicationStatus previous = indexedStatus.put(application, application.getStatus());
+        if (previous != application.getStatus()) {
+            if (previous != null) {
+                byStatus.get(previous).remove(position);
+            }
+            byStatus.computeIfAbsent(application.getStatus(), s -> new TreeMap<>()).put(position, application);
+        }
+        if (application.isRequestWithdrawal()) {
+            withdrawals.put(position, application);
+        } else {
+            withdrawals.remove(position);
+        }
+    }
+
+    /** The order {@code application} was added in, counting from 0. */
+    int positionOf(Application application) {
+        return positions.get(application);
+    }
+
+    Application findByNric(String nric) {
+        return byNric.get(nric);
+    }
+
+    // Keyed by project identity, so a renamed project keeps its applications
+    List<Application> findByProject(BTOProject project) {
+        return new ArrayList<>(byProject.getOrDefault(project, List.of()));
+    }
+
+    List<Application> findByStatus(ApplicationStatus status) {
+        NavigableMap<Integer, Application> matches = byStatus.get(status);
+        return matches == null ? new ArrayList<>() : new ArrayList<>(matches.values());
+    }
+
+    List<Application> findWithdrawalRequests() {
+        return new ArrayList<>(withdrawals.values());
+    }
+}
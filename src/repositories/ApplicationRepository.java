@@ -19,8 +19,11 @@ public interface ApplicationRepository {
     List<Application> findWithdrawalRequests();
     List<Application> findByBooked();
 
-    /** Flush the current in‐memory state back to the CSV file (overwrite). */
+    /** Record the changes made since the last call in the backing store. */
     void persist();
 
+    /** Fold all recorded changes into a full snapshot of the backing store. */
+    void checkpoint();
+
 
 }
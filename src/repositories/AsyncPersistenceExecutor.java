@@ -0,0 +1,177 @@
+package repositories;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background writer used by {@link DurableFileWriter} when asynchronous persistence is enabled.
+ *
+ * Callers render their snapshot on their own thread and hand the bytes over; a single writer
+ * thread performs the actual file writes in submission order, across all files. Files can depend
+ * on each other (a journal is truncated only after the checkpoint it was folded into has been
+ * written), so no write is ever moved ahead of or behind a write to another file. A write is
+ * only merged into the last queued one, when that is to the same file: a newer snapshot replaces
+ * it, an append extends it. The queue holds a bounded number of writes; when it is full,
+ * submitters block until the writer catches up, so a slow disk slows the console down instead
+ * of growing memory.
+ */
+class AsyncPersistenceExecutor implements Runnable {
+    private final int capacity;
+    private final Thread thread;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull  = lock.newCondition();
+    private final Condition idle     = lock.newCondition();
+
+    private final ArrayDeque<PendingWrite> queue = new ArrayDeque<>();
+    private boolean writing = false;
+    private boolean running = true;
+    private IOException lastFailure;
+
+    AsyncPersistenceExecutor(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.thread = new Thread(this, "bto-async-persist");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    boolean isWriterThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Queue a write, blocking while the queue is full.
+     */
+    void submit(Path path, String content, boolean append) throws InterruptedException {
+        lock.lock();
+        try {
+            PendingWrite last = mergeableTail(path);
+            while (last == null && queue.size() >= capacity) {
+                notFull.await();
+                last = mergeableTail(path);
+            }
+            if (last == null) {
+                queue.addLast(new PendingWrite(path, content, append));
+            } else if (append) {
+                last.content.append(content);
+            } else {
+                // newer full snapshot wins, in the same place: nothing else was queued after it
+                queue.pollLast();
+                queue.addLast(new PendingWrite(path, content, false));
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The last queued write, if it is to path; merging into anything earlier would reorder writes
+    private PendingWrite mergeableTail(Path path) {
+        PendingWrite last = queue.peekLast();
+        return last != null && last.path.equals(path) ? last : null;
+    }
+
+    /**
+     * Block until every queued write has reached the file system.
+     * @throws IOException the most recent write failure, if any write failed since the last drain
+     */
+    void drain() throws IOException {
+        lock.lock();
+        try {
+            while (!queue.isEmpty() || writing) {
+                idle.awaitUninterruptibly();
+            }
+            if (lastFailure != null) {
+                IOException failure = lastFailure;
+                lastFailure = null;
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drain the queue and stop the writer thread.
+     */
+    void shutdown() throws IOException {
+        try {
+            drain();
+        } finally {
+            lock.lock();
+            try {
+                running = false;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            Path path;
+            PendingWrite write;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && running) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return; // stopped and drained
+                }
+                write = queue.pollFirst();
+                path = write.path;
+                writing = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            IOException failure = null;
+            try {
+                DurableFileWriter.writeThrough(path, write.content.toString(), write.append);
+            } catch (IOException | RuntimeException e) {
+                failure = e instanceof IOException io ? io : new IOException(e);
+                System.err.println("⚠️ Background write to " + path + " failed: " + e.getMessage());
+            }
+
+            lock.lock();
+            try {
+                writing = false;
+                if (failure != null) {
+                    lastFailure = failure;
+                }
+                if (queue.isEmpty()) {
+                    idle.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        private final Path path;
+        private final StringBuilder content;
+        private final boolean append;
+
+        PendingWrite(Path path, String content, boolean append) {
+            this.path = path;
+            this.content = new StringBuilder(content);
+            this.append = append;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package repositories;
+
+import entities.*;
+import enums.*;
+import utils.DailyClock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Binary image of every entity, read at startup instead of parsing the CSV files.
+ *
+ * The CSV files stay the source of truth; the snapshot is only a cache of them. It records the
+ * size and modification time of each CSV (and of the application journal) as they were when it
+ * was written, and is ignored as stale as soon as any of them differs. It is also ignored when
+ * it is missing, has another schema version, or fails its checksum.
+ *
+ * Layout (big-endian): magic, schema version, source fingerprints, then users, projects,
+ * registrations, applications and enquiries, then a CRC32 of everything before it. Strings are
+ * an int byte length followed by UTF-8 (-1 for null), enums are ordinals, dates are epoch days
+ * and timestamps epoch seconds. References between entities are indexes into the user and
+ * project sections. Bump {@link #SCHEMA_VERSION} whenever an entity or enum changes shape.
+ */
+public final class BinarySnapshot {
+    private static final String PATH = "data/snapshot.bin";
+    private static final int MAGIC = 0x42544F53; // "BTOS"
+    private static final int SCHEMA_VERSION = 1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    // every file the snapshot is derived from
+    private static final List<String> SOURCES = List.of(
+        "data/ApplicantList.csv",
+        "data/OfficerList.csv",
+        "data/ManagerList.csv",
+        "data/ProjectList.csv",
+        "data/RegistrationList.csv",
+        "data/ApplicationList.csv",
+        "data/ApplicationList.journal",
+        "data/EnquiryList.csv"
+    );
+
+    private final List<User> users = new ArrayList<>();
+    private final List<BTOProject> projects = new ArrayList<>();
+    private final List<Registration> registrations = new ArrayList<>();
+    private final List<Application> applications = new ArrayList<>();
+    private final List<Enquiry> enquiries = new ArrayList<>();
+
+    private BinarySnapshot() {
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public List<BTOProject> getProjects() {
+        return projects;
+    }
+
+    public List<Registration> getRegistrations() {
+        return registrations;
+    }
+
+    public List<Application> getApplications() {
+        return applications;
+    }
+
+    public List<Enquiry> getEnquiries() {
+        return enquiries;
+    }
+
+    /**
+     * Read the snapshot.
+     * @return null if there is no usable snapshot and the CSV files have to be loaded instead
+     */
+    public static BinarySnapshot read() {
+        Path path = Paths.get(PATH);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (bytes.length < 12) {
+                return null;
+            }
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.getInt() != MAGIC || in.getInt() != SCHEMA_VERSION) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            if ((int) crc.getValue() != in.getInt(bytes.length - 4)) {
+                System.out.println("⚠️ Ignoring corrupt snapshot " + PATH);
+                return null;
+            }
+            if (!readFingerprints(in)) {
+                return null; // CSV files changed since the snapshot was written
+            }
+            BinarySnapshot snapshot = new BinarySnapshot();
+            snapshot.readEntities(in);
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            // BufferUnderflowException, bad ordinals etc. - treat like a corrupt file
+            System.out.println("⚠️ Ignoring unreadable snapshot " + PATH + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Write a snapshot of the repositories. Their CSV files must already be up to date
+     * (including any background writes), since their current state is fingerprinted.
+     */
+    public static void write(UserRepository userRepo, ProjectRepository projectRepo,
+                             RegistrationRepository regRepo, ApplicationRepository appRepo,
+                             EnquiryRepository enquiryRepo) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(MAGIC);
+            out.writeInt(SCHEMA_VERSION);
+            writeFingerprints(out);
+            writeEntities(out, userRepo, projectRepo, regRepo, appRepo, enquiryRepo);
+            out.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.toByteArray());
+            out.writeInt((int) crc.getValue());
+            out.flush();
+
+            // a cache, so no fsync: a torn or lost snapshot just means one slower start
+            Path path = Paths.get(PATH);
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, buffer.toByteArray());
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.out.println("⚠️ Failed to write snapshot " + PATH + ": " + e.getMessage());
+        }
+    }
+
+    // -- fingerprints --
+
+    private static void writeFingerprints(DataOutputStream out) throws IOException {
+        out.writeInt(SOURCES.size());
+        for (String source : SOURCES) {
+            File file = new File(source);
+            writeString(out, source);
+            out.writeLong(file.exists() ? file.length() : -1);
+            out.writeLong(file.exists() ? file.lastModified() : 0);
+        }
+    }
+
+    private static boolean readFingerprints(ByteBuffer in) {
+        int count = in.getInt();
+        if (count != SOURCES.size()) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            File file = new File(readString(in));
+            long length   = in.getLong();
+            long modified = in.getLong();
+            if (length != (file.exists() ? file.length() : -1)
+                    || modified != (file.exists() ? file.lastModified() : 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // -- entities --
+
+    private static void writeEntities(DataOutputStream out, UserRepository userRepo, ProjectRepository projectRepo,
+                                      RegistrationRepository regRepo, ApplicationRepository appRepo,
+                                      EnquiryRepository enquiryRepo) throws IOException {
+        // same order as loading the applicant, officer and manager files one after another
+        List<User> users = new ArrayList<>();
+        for (Class<?> type : List.of(Applicant.class, HDBOfficer.class, HDBManager.class)) {
+            for (User u : userRepo.findAll()) {
+                if (u.getClass() == type) {
+                    users.add(u);
+                }
+            }
+        }
+        Map<Object, Integer> userIndex = new IdentityHashMap<>();
+        out.writeInt(users.size());
+        for (User u : users) {
+            userIndex.put(u, userIndex.size());
+            out.writeByte(u.getRole().ordinal());
+            writeString(out, u.getName());
+            writeString(out, u.getNric());
+            out.writeInt(u.getAge());
+            out.writeByte(u.getMaritalStatus().ordinal());
+            writeString(out, u.getPassword());
+        }
+
+        List<BTOProject> projects = projectRepo.findAll();
+        Map<Object, Integer> projectIndex = new IdentityHashMap<>();
+        out.writeInt(projects.size());
+        for (BTOProject p : projects) {
+            projectIndex.put(p, projectIndex.size());
+            writeString(out, p.getProjectName());
+            writeString(out, p.getNeighborhood());
+            Map<FlatType, Integer> available = p.getFlatsAvailable();
+            out.writeInt(available.size());
+            for (Map.Entry<FlatType, Integer> flats : available.entrySet()) {
+                out.writeByte(flats.getKey().ordinal());
+                out.writeInt(flats.getValue());
+                out.writeInt(p.getSellingPriceFor(flats.getKey()));
+            }
+            writeDate(out, p.getOpenDate());
+            writeDate(out, p.getCloseDate());
+            out.writeInt(p.getAvailableOfficerSlots());
+            out.writeInt(indexOf(userIndex, p.getManager()));
+        }
+
+        List<Registration> registrations = regRepo.findAll();
+        out.writeInt(registrations.size());
+        for (Registration r : registrations) {
+            out.writeInt(indexOf(userIndex, r.getOfficer()));
+            out.writeInt(indexOf(projectIndex, r.getProject()));
+            out.writeByte(r.getStatus().ordinal());
+            writeDate(out, r.getSubmittedAt());
+            writeDate(out, r.getReviewedAt());
+        }
+
+        List<Application> applications = appRepo.findAll();
+        out.writeInt(applications.size());
+        for (Application a : applications) {
+            out.writeInt(indexOf(userIndex, a.getApplicant()));
+            out.writeInt(indexOf(projectIndex, a.getProject()));
+            out.writeByte(a.getFlatType().ordinal());
+            out.writeByte(a.getStatus().ordinal());
+            out.writeBoolean(a.isRequestWithdrawal());
+        }
+
+        List<Enquiry> enquiries = enquiryRepo.findAll();
+        out.writeInt(enquiries.size());
+        for (Enquiry e : enquiries) {
+            out.writeInt(e.getEnquiryId());
+            out.writeInt(indexOf(userIndex, e.getApplicant()));
+            out.writeInt(indexOf(projectIndex, e.getProject()));
+            writeString(out, e.getContent());
+            writeString(out, e.getResponse());
+            out.writeByte(e.getStatus().ordinal());
+            writeTimestamp(out, e.getCreatedAt());
+            writeTimestamp(out, e.getLastModified());
+            writeTimestamp(out, e.getRespondedAt());
+            out.writeInt(e.getRespondedBy() == null ? -1 : indexOf(userIndex, e.getRespondedBy()));
+        }
+    }
+
+    private void readEntities(ByteBuffer in) {
+        UserRole[] roles = UserRole.values();
+        MaritalStatus[] maritalStatuses = MaritalStatus.values();
+        for (int i = in.getInt(); i > 0; i--) {
+            UserRole role = roles[in.get()];
+            String name   = readString(in);
+            String nric   = readString(in);
+            int age       = in.getInt();
+            MaritalStatus ms = maritalStatuses[in.get()];
+            String pwd    = readString(in);
+            users.add(switch (role) {
+                case APPLICANT   -> new Applicant(name, nric, age, ms, pwd);
+                case HDB_OFFICER -> new HDBOfficer(name, nric, age, ms, pwd);
+                case HDB_MANAGER -> new HDBManager(name, nric, age, ms, pwd);
+            });
+        }
+
+        FlatType[] flatTypes = FlatType.values();
+        LocalDate today = DailyClock.system().today();
+        for (int i = in.getInt(); i > 0; i--) {
+            String name         = readString(in);
+            String neighborhood = readString(in);
+            Map<FlatType, Integer> quota = new LinkedHashMap<>();
+            Map<FlatType, Integer> price = new LinkedHashMap<>();
+            for (int f = in.getInt(); f > 0; f--) {
+                FlatType ft = flatTypes[in.get()];
+                quota.put(ft, in.getInt());
+                price.put(ft, in.getInt());
+            }
+            LocalDate open  = readDate(in);
+            LocalDate close = readDate(in);
+            int slots       = in.getInt();
+            HDBManager mgr  = (HDBManager) users.get(in.getInt());
+            // visibility is not stored; derived from today's date exactly as when loading the CSV
+            VisibilityStatus vs = (!today.isBefore(open) && !today.isAfter(close))
+                                  ? VisibilityStatus.VISIBLE
+                                  : VisibilityStatus.HIDDEN;
+            projects.add(new BTOProject(name, neighborhood, quota, price, vs, open, close, slots, mgr));
+        }
+
+        RegistrationStatus[] regStatuses = RegistrationStatus.values();
+        for (int i = in.getInt(); i > 0; i--) {
+            HDBOfficer officer   = (HDBOfficer) users.get(in.getInt());
+            BTOProject project   = projects.get(in.getInt());
+            RegistrationStatus status = regStatuses[in.get()];
+            LocalDate submitted  = readDate(in);
+            LocalDate reviewed   = readDate(in);
+            registrations.add(new Registration(officer, project, status, submitted, reviewed));
+        }
+
+        ApplicationStatus[] appStatuses = ApplicationStatus.values();
+        for (int i = in.getInt(); i > 0; i--) {
+            Applicant applicant = (Applicant) users.get(in.getInt());
+            BTOProject project  = projects.get(in.getInt());
+            FlatType ft         = flatTypes[in.get()];
+            ApplicationStatus status = appStatuses[in.get()];
+            boolean withdrawal  = in.get() != 0;
+            applications.add(new Application(applicant, project, ft, status, withdrawal));
+        }
+
+        EnquiryStatus[] enquiryStatuses = EnquiryStatus.values();
+        for (int i = in.getInt(); i > 0; i--) {
+            int id              = in.getInt();
+            Applicant applicant = (Applicant) users.get(in.getInt());
+            BTOProject project  = projects.get(in.getInt());
+            String content      = readString(in);
+            String response     = readString(in);
+            EnquiryStatus status = enquiryStatuses[in.get()];
+            LocalDateTime created   = readTimestamp(in);
+            LocalDateTime modified  = readTimestamp(in);
+            LocalDateTime responded = readTimestamp(in);
+            int responder       = in.getInt();
+            enquiries.add(new Enquiry(id, applicant, project, content, response, status, created, modified,
+                                      responded, responder < 0 ? null : users.get(responder)));
+        }
+
+        if (in.remaining() != 4) { // only the checksum should be left
+            throw new BufferUnderflowException();
+        }
+    }
+
+    private static int indexOf(Map<Object, Integer> index, Object entity) {
+        Integer i = index.get(entity);
+        if (i == null) {
+            throw new IllegalStateException("Snapshot references an entity that is not in its repository: " + entity);
+        }
+        return i;
+    }
+
+    // -- primitives --
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String s = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeInt(date == null ? NULL_DATE : (int) date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        int day = in.getInt();
+        return day == NULL_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time == null ? NULL_TIMESTAMP : time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime readTimestamp(ByteBuffer in) {
+        long seconds = in.getLong();
+        return seconds == NULL_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
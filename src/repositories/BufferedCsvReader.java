@@ -0,0 +1,357 @@
+package repositories;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Forward-only CSV reader that tokenizes straight from the bytes of a file, read whole into one
+ * heap buffer (see {@link #read} for why the file is not memory-mapped).
+ *
+ * Follows RFC 4180: records end with LF or CRLF, fields are separated by commas, and a field
+ * wrapped in double quotes may contain commas, line breaks and doubled ("") quotes. Blank
+ * lines are skipped.
+ *
+ * Only the field boundaries of the current record are kept, in reusable offset arrays, so
+ * advancing to the next record allocates nothing. Typed getters (int, boolean, enum, date)
+ * parse directly from the buffered bytes; a String is only created when getString/getTrimmed
+ * is called. All getters take the zero-based column index of the current record.
+ */
+public final class BufferedCsvReader {
+    private static final DateTimeFormatter DATE_TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    private int fieldCount;
+    private int[] starts  = new int[16];
+    private int[] ends    = new int[16];
+    private boolean[] escaped = new boolean[16]; // quoted field containing "" pairs
+    private int recordStart;
+    private int recordEnd;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Read the byte range [start, end) of {@code buffer}. The range must begin at a record boundary.
+     */
+    BufferedCsvReader(ByteBuffer buffer, int start, int end) {
+        this.buffer   = buffer;
+        this.position = start;
+        this.limit    = end;
+    }
+
+    /**
+     * Read the whole file at {@code path}.
+     */
+    public static BufferedCsvReader open(String path) throws IOException {
+        ByteBuffer bytes = read(Paths.get(path));
+        return new BufferedCsvReader(bytes, 0, bytes.limit());
+    }
+
+    /**
+     * The whole file in a heap buffer, read through the channel in one pass.
+     *
+     * Not memory-mapped: a mapping stays live until the buffer is garbage collected, and on
+     * Windows a file with a live mapping cannot be replaced, so the first persist after startup
+     * (an atomic rename over the same path) would fail.
+     */
+    static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to read: " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until full or end of file
+            }
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * Advance to the next record.
+     * @return false once the end of the input is reached
+     */
+    public boolean next() {
+        while (position < limit) {
+            recordStart = position;
+            parseRecord();
+            if (recordEnd > recordStart) {
+                return true;
+            }
+            // blank line
+        }
+        fieldCount = 0;
+        return false;
+    }
+
+    /** Offset just past the current record and its line break, where the next record starts. */
+    int endOffset() {
+        return position;
+    }
+
+    /** Number of fields in the current record. */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /** True if the field is empty or whitespace only. */
+    public boolean isEmpty(int i) {
+        return trimmedStart(i) >= trimmedEnd(i);
+    }
+
+    /** The field exactly as written, with quotes removed and "" unescaped. */
+    public String getString(int i) {
+        return decode(starts[i], ends[i], escaped[i]);
+    }
+
+    /** The field with leading and trailing whitespace removed. */
+    public String getTrimmed(int i) {
+        return decode(trimmedStart(i), trimmedEnd(i), escaped[i]);
+    }
+
+    /** Parse the field as a decimal int without creating a String. */
+    public int getInt(int i) {
+        int from = trimmedStart(i);
+        int to   = trimmedEnd(i);
+        if (from >= to) {
+            throw new NumberFormatException("Empty number in column " + i + ": " + recordText());
+        }
+        boolean negative = false;
+        byte first = buffer.get(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            from++;
+            if (from >= to) {
+                throw new NumberFormatException("For input string: \"" + getTrimmed(i) + "\"");
+            }
+        }
+        long value = 0;
+        for (int p = from; p < to; p++) {
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + getTrimmed(i) + "\"");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("For input string: \"" + getTrimmed(i) + "\"");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + getTrimmed(i) + "\"");
+        }
+        return (int) value;
+    }
+
+    /** Same rule as Boolean.parseBoolean: true only for "true", ignoring case. */
+    public boolean getBoolean(int i) {
+        return equalsIgnoreCase(i, "true");
+    }
+
+    /**
+     * Match the field against the constant names in {@code values}, ignoring case,
+     * like {@code Enum.valueOf(field.trim().toUpperCase())}.
+     */
+    public <E extends Enum<E>> E getEnum(int i, E[] values) {
+        for (E value : values) {
+            if (equalsIgnoreCase(i, value.name())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("No " + values.getClass().getComponentType().getSimpleName()
+                                           + " constant for \"" + getTrimmed(i) + "\"");
+    }
+
+    /** Parse an ISO yyyy-MM-dd date. */
+    public LocalDate getDate(int i) {
+        int from = trimmedStart(i);
+        if (trimmedEnd(i) - from == 10) {
+            LocalDate date = getDatePart(from);
+            if (date != null) {
+                return date;
+            }
+        }
+        return LocalDate.parse(getTrimmed(i)); // slow path, reports the error in the usual format
+    }
+
+    /** Parse a "yyyy-MM-dd HH:mm" timestamp. */
+    public LocalDateTime getDateTime(int i) {
+        int from = trimmedStart(i);
+        if (trimmedEnd(i) - from == 16 && buffer.get(from + 10) == ' ' && buffer.get(from + 13) == ':') {
+            LocalDate date = getDatePart(from);
+            int hour   = digits(from + 11, 2);
+            int minute = digits(from + 14, 2);
+            if (date != null && hour >= 0 && minute >= 0) {
+                return date.atTime(hour, minute);
+            }
+        }
+        return LocalDateTime.parse(getTrimmed(i), DATE_TIME_FMT);
+    }
+
+    /** Case-insensitive (ASCII) comparison of the trimmed field with {@code text}. */
+    public boolean equalsIgnoreCase(int i, String text) {
+        int from = trimmedStart(i);
+        int to   = trimmedEnd(i);
+        if (escaped[i] || to - from != text.length()) {
+            return escaped[i] && getTrimmed(i).equalsIgnoreCase(text);
+        }
+        for (int k = 0; k < text.length(); k++) {
+            if (toUpper(buffer.get(from + k)) != Character.toUpperCase(text.charAt(k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The raw text of the current record, for diagnostics. */
+    public String recordText() {
+        return decode(recordStart, recordEnd, false);
+    }
+
+    /** The current record split into strings, for diagnostics. */
+    public String[] toArray() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = getString(i);
+        }
+        return fields;
+    }
+
+    // -- tokenizer --
+
+    private void parseRecord() {
+        fieldCount = 0;
+        int p = position;
+        while (true) {
+            ensureCapacity(fieldCount + 1);
+            boolean quoted = p < limit && buffer.get(p) == '"';
+            int start;
+            int end;
+            boolean hasEscapes = false;
+            if (quoted) {
+                start = ++p;
+                while (true) {
+                    if (p >= limit) { // unterminated quote: take the rest of the input
+                        end = p;
+                        break;
+                    }
+                    byte b = buffer.get(p);
+                    if (b == '"') {
+                        if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                            hasEscapes = true;
+                            p += 2;
+                            continue;
+                        }
+                        end = p++;
+                        break;
+                    }
+                    p++;
+                }
+                // tolerate stray characters between the closing quote and the delimiter
+                while (p < limit && buffer.get(p) != ',' && buffer.get(p) != '\n' && buffer.get(p) != '\r') {
+                    p++;
+                }
+            } else {
+                start = p;
+                while (p < limit && buffer.get(p) != ',' && buffer.get(p) != '\n' && buffer.get(p) != '\r') {
+                    p++;
+                }
+                end = p;
+            }
+            starts[fieldCount]  = start;
+            ends[fieldCount]    = end;
+            escaped[fieldCount] = hasEscapes;
+            fieldCount++;
+
+            if (p < limit && buffer.get(p) == ',') {
+                p++;
+                continue;
+            }
+            recordEnd = p;
+            if (p < limit && buffer.get(p) == '\r') {
+                p++;
+            }
+            if (p < limit && buffer.get(p) == '\n') {
+                p++;
+            }
+            position = p;
+            return;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > starts.length) {
+            int size = Math.max(needed, starts.length * 2);
+            starts  = Arrays.copyOf(starts, size);
+            ends    = Arrays.copyOf(ends, size);
+            escaped = Arrays.copyOf(escaped, size);
+        }
+    }
+
+    private int trimmedStart(int i) {
+        int p = starts[i];
+        while (p < ends[i] && (buffer.get(p) & 0xFF) <= ' ') {
+            p++;
+        }
+        return p;
+    }
+
+    private int trimmedEnd(int i) {
+        int p = ends[i];
+        while (p > starts[i] && (buffer.get(p - 1) & 0xFF) <= ' ') {
+            p--;
+        }
+        return p;
+    }
+
+    private String decode(int from, int to, boolean unescape) {
+        int length = to - from;
+        if (length <= 0) {
+            return "";
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        String text = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        return unescape ? text.replace("\"\"", "\"") : text;
+    }
+
+    private LocalDate getDatePart(int from) {
+        if (buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-') {
+            return null;
+        }
+        int year  = digits(from, 4);
+        int month = digits(from + 5, 2);
+        int day   = digits(from + 8, 2);
+        return (year < 0 || month < 0 || day < 0) ? null : LocalDate.of(year, month, day);
+    }
+
+    // -1 if the range is not all digits
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int p = from; p < from + count; p++) {
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int toUpper(byte b) {
+        return (b >= 'a' && b <= 'z') ? b - 32 : (b & 0xFF);
+    }
+}
@@ -1,58 +1,116 @@
 package repositories;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
 import entities.Application;
 import entities.Applicant;
 import entities.BTOProject;
+import entities.User;
 import enums.ApplicationStatus;
 import enums.FlatType;
 
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * CSV-backed implementation of ApplicationRepository.
+ *
+ * Mutations are not written by rewriting the CSV. Instead every change is appended to
+ * a journal of typed change records (ADD / UPDATE), and the CSV snapshot is only rebuilt
+ * at a checkpoint. On startup the snapshot is loaded and the journal tail replayed on top.
+ * Both record types name their application by its row: the position in the store, which is
+ * the order of the snapshot rows followed by the ADD records, since applications are never
+ * removed. A crash between writing the snapshot and truncating the journal at a checkpoint
+ * leaves ADD records for rows the snapshot already has; replay skips those, so it never
+ * duplicates an application, and re-applying an UPDATE is harmless.
+ *
+ * Queries are answered from an {@link ApplicationIndex} that is kept up to date through each
+ * application's change listener.
+ */
 public class CsvApplicationRepository implements ApplicationRepository {
-    private static final String CSV_PATH = "data/ApplicationList.csv";
+    private static final String CSV_PATH     = "data/ApplicationList.csv";
+    private static final String JOURNAL_PATH = "data/ApplicationList.journal";
+    private static final int CHECKPOINT_INTERVAL = 1000; // journal records before the snapshot is rebuilt
+
+    private static final String ADD_RECORD    = "ADD";
+    private static final String UPDATE_RECORD = "UPDATE";
 
     private final List<Application> store = new ArrayList<>();
+    private final String csvPath;
+    private final String journalPath;
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
 
+    // Changes not yet written to the journal, in the order they happened (one entry per application)
+    private final Map<Application, String> pending = new LinkedHashMap<>();
+    private int journalRecords = 0;
+
+    private final ApplicationIndex index = new ApplicationIndex();
+
     public CsvApplicationRepository(UserRepository userRepository, ProjectRepository projectRepository) {
+        this(userRepository, projectRepository, EntityResolver.of(userRepository, projectRepository));
+    }
+
+    /**
+     * Load using a resolver that already indexes {@code userRepository} and {@code projectRepository}.
+     */
+    public CsvApplicationRepository(UserRepository userRepository, ProjectRepository projectRepository,
+                                    EntityResolver resolver) {
+        this(userRepository, projectRepository, resolver, CSV_PATH, JOURNAL_PATH);
+    }
+
+    /**
+     * Load from, and write to, the snapshot at {@code csvPath} and the journal at {@code journalPath}.
+     */
+    CsvApplicationRepository(UserRepository userRepository, ProjectRepository projectRepository,
+                             EntityResolver resolver, String csvPath, String journalPath) {
+        this.userRepository    = userRepository;
+        this.projectRepository = projectRepository;
+        this.csvPath           = csvPath;
+        this.journalPath       = journalPath;
+        loadFromCsv(resolver);
+        replayJournal(resolver);
+        store.forEach(this::track);
+    }
+
+    /**
+     * Start from already loaded applications (e.g. a {@link BinarySnapshot}). They must already
+     * include every journal record, as they do when a snapshot is taken right after a checkpoint.
+     */
+    public CsvApplicationRepository(UserRepository userRepository, ProjectRepository projectRepository,
+                                    List<Application> applications) {
         this.userRepository    = userRepository;
         this.projectRepository = projectRepository;
-        loadFromCsv();
+        this.csvPath           = CSV_PATH;
+        this.journalPath       = JOURNAL_PATH;
+        store.addAll(applications);
+        store.forEach(this::track);
     }
 
     @Override
     public void addApplication(Application application) {
         store.add(application);
+        track(application);
+        pending.put(application, ADD_RECORD);
         persist();
     }
 
     @Override
     public List<Application> findPendingApplications(String projectName) {
-        return store.stream()
-                    .filter(a -> a.getProject().getProjectName().equals(projectName) && a.getStatus() == ApplicationStatus.PENDING)
+        return findByProject(projectName).stream()
+                    .filter(a -> a.getStatus() == ApplicationStatus.PENDING)
                     .collect(Collectors.toList());
     }
 
     @Override
     public Application findByNRIC(String nric) {
-        return store.stream()
-                    .filter(a -> a.getApplicant().getNric().equals(nric))
-                    .findFirst()
-                    .orElse(null);
+        return index.findByNric(nric);
     }
 
     @Override
     public List<Application> findByProject(String projectName) {
-        return store.stream()
-                    .filter(a -> a.getProject().getProjectName().equals(projectName))
-                    .collect(Collectors.toList());
+        BTOProject project = projectRepository.findByName(projectName);
+        return project == null ? new ArrayList<>() : index.findByProject(project);
     }
 
     @Override
@@ -62,81 +120,218 @@ public class CsvApplicationRepository implements ApplicationRepository {
 
     @Override
     public void persist() {
-        try (PrintWriter writer = new PrintWriter(CSV_PATH)) {
-            writer.println("Applicant_Name,Applicant_NRIC,Applicant_Age,Applicant_Marital_Status,Project_Name,Flat_Type,Application_Status,Request_Withdrawal");
-            for (Application a : store) {
-                writer.printf("%s,%s,%d,%s,%s,%s,%s,%b%n",
-                    a.getApplicant().getName(),
-                    a.getApplicant().getNric(),
-                    a.getApplicant().getAge(),
-                    a.getApplicant().getMaritalStatus(),
-                    a.getProject().getProjectName(),
-                    a.getFlatType(),
-                    a.getStatus(),
-                    a.isRequestWithdrawal()
-                );
-            }
+        UnitOfWork.persist(this, this::flush);
+    }
+
+    /**
+     * Appends the pending change records to the journal. Nothing is written when
+     * no application changed since the last call.
+     */
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            DurableFileWriter.append(journalPath, writer -> {
+                for (Map.Entry<Application, String> change : pending.entrySet()) {
+                    writer.println(toJournalRecord(change.getValue(), change.getKey()));
+                }
+            });
         } catch (IOException e) {
-            throw new RuntimeException("Failed to persist applications to CSV", e);
+            throw new RuntimeException("Failed to append application changes to journal", e);
+        }
+        journalRecords += pending.size();
+        pending.clear();
+
+        if (journalRecords >= CHECKPOINT_INTERVAL) {
+            checkpoint();
         }
     }
 
-    private void loadFromCsv() {
-        try (CSVReader reader = new CSVReader(new FileReader(CSV_PATH))) {
-            String[] row;
-            boolean first = true;
-            while ((row = reader.readNext()) != null) {
-                if (first) {
-                    first = false;
-                    continue; // skip header
+    /**
+     * Rebuilds the CSV snapshot from memory and truncates the journal.
+     */
+    @Override
+    public void checkpoint() {
+        try {
+            DurableFileWriter.replace(csvPath, writer -> {
+                writer.println("Applicant_Name,Applicant_NRIC,Applicant_Age,Applicant_Marital_Status,Project_Name,Flat_Type,Application_Status,Request_Withdrawal");
+                for (Application a : store) {
+                    writer.println(toCsvRow(a));
                 }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to persist applications to CSV", e);
+        }
 
-                if (row.length < 8) {
-                    System.out.println("⚠️ Skipping malformed row: " + Arrays.toString(row));
-                    continue;
-                }
+        try {
+            // truncated only after the snapshot is safely in place: everything is now in the snapshot
+            DurableFileWriter.replace(journalPath, journal -> { });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to truncate application journal", e);
+        }
+        journalRecords = 0;
+        pending.clear();
+    }
 
-                try {
-                    String nric       = row[1].trim();
-                    String projName   = row[4].trim();
-                    FlatType ft       = FlatType.valueOf(row[5].trim().toUpperCase());
-                    ApplicationStatus st = ApplicationStatus.valueOf(row[6].trim().toUpperCase());
-                    boolean reqWd     = Boolean.parseBoolean(row[7].trim());
-
-                    Applicant applicant = (Applicant) userRepository.findByNric(nric);
-                    BTOProject project  = projectRepository.findByName(projName);
-
-                    if (applicant == null || project == null) {
-                        System.out.printf("⚠️ Skipping row: user or project not found for NRIC=%s, project=%s%n", nric, projName);
-                        continue;
-                    }
+    private void track(Application application) {
+        index.add(application);
+        application.addChangeListener(a -> {
+            pending.putIfAbsent(a, UPDATE_RECORD);
+            index.reindex(a);
+        });
+    }
 
-                    Application app = new Application(applicant, project, ft, st, reqWd);
-                    store.add(app);
+    private String toCsvRow(Application a) {
+        return String.format("%s,%s,%d,%s,%s,%s,%s,%b",
+            a.getApplicant().getName(),
+            a.getApplicant().getNric(),
+            a.getApplicant().getAge(),
+            a.getApplicant().getMaritalStatus(),
+            a.getProject().getProjectName(),
+            a.getFlatType(),
+            a.getStatus(),
+            a.isRequestWithdrawal()
+        );
+    }
 
-                } catch (Exception e) {
-                    System.out.println("⚠️ Failed to parse row: " + Arrays.toString(row));
-                    e.printStackTrace(); // Optional: comment this out in production
+    // ADD carries the row position and the full row, UPDATE the row position, the applicant
+    // (as a check) and the mutable fields
+    private String toJournalRecord(String type, Application a) {
+        if (ADD_RECORD.equals(type)) {
+            return ADD_RECORD + "," + index.positionOf(a) + "," + toCsvRow(a);
+        }
+        return String.format("%s,%d,%s,%s,%b",
+            UPDATE_RECORD,
+            index.positionOf(a),
+            a.getApplicant().getNric(),
+            a.getStatus(),
+            a.isRequestWithdrawal()
+        );
+    }
+
+    private void loadFromCsv(EntityResolver resolver) {
+        List<ApplicationRow> rows;
+        try {
+            rows = ParallelCsvLoader.load(csvPath, r -> readRow(r, 0));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load applications from CSV", e);
+        }
+
+        // hash-join every row against one snapshot of the users and projects
+        long start = System.nanoTime();
+        for (ApplicationRow row : rows) {
+            Application app = resolve(row, resolver);
+            if (app != null) {
+                store.add(app);
+            }
+        }
+        StartupMetrics.addResolutionTime(System.nanoTime() - start);
+    }
+
+    // Reads an application row whose first column sits at index 'col' of the current record
+    private static ApplicationRow readRow(BufferedCsvReader row, int col) {
+        if (row.fieldCount() < col + 8) {
+            System.out.println("⚠️ Skipping malformed row: " + Arrays.toString(row.toArray()));
+            return null;
+        }
+
+        try {
+            return new ApplicationRow(
+                row.getTrimmed(col + 1),
+                row.getTrimmed(col + 4),
+                row.getEnum(col + 5, FlatType.values()),
+                row.getEnum(col + 6, ApplicationStatus.values()),
+                row.getBoolean(col + 7)
+            );
+        } catch (Exception e) {
+            System.out.println("⚠️ Failed to parse row: " + Arrays.toString(row.toArray()));
+            e.printStackTrace(); // Optional: comment this out in production
+            return null;
+        }
+    }
+
+    private static Application resolve(ApplicationRow row, EntityResolver resolver) {
+        if (row == null) {
+            return null;
+        }
+        User user          = resolver.findUser(row.nric());
+        BTOProject project = resolver.findProject(row.projectName());
+
+        if (!(user instanceof Applicant applicant) || project == null) {
+            System.out.printf("⚠️ Skipping row: user or project not found for NRIC=%s, project=%s%n", row.nric(), row.projectName());
+            return null;
+        }
+        return new Application(applicant, project, row.flatType(), row.status(), row.requestWithdrawal());
+    }
+
+    private void replayJournal(EntityResolver resolver) {
+        if (!new File(journalPath).exists()) {
+            return;
+        }
+
+        try {
+            BufferedCsvReader record = BufferedCsvReader.open(journalPath);
+            while (record.next()) {
+                journalRecords++;
+                try {
+                    if (!replay(record, resolver)) {
+                        // a torn last line after a crash ends up here
+                        System.out.println("⚠️ Skipping malformed journal record: " + Arrays.toString(record.toArray()));
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.out.println("⚠️ Skipping malformed journal record: " + Arrays.toString(record.toArray()));
                 }
             }
-        } catch (IOException | CsvValidationException e) {
-            throw new RuntimeException("Failed to load applications from CSV", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to replay application journal", e);
         }
     }
 
+    // Applies one journal record; false if it is neither a complete ADD nor a complete UPDATE
+    private boolean replay(BufferedCsvReader record, EntityResolver resolver) {
+        if (record.equalsIgnoreCase(0, ADD_RECORD) && record.fieldCount() >= 10) {
+            if (record.getInt(1) < store.size()) {
+                return true; // the snapshot already has this row
+            }
+            Application app = resolve(readRow(record, 2), resolver);
+            if (app != null) {
+                store.add(app);
+            }
+            return true;
+        }
+        if (record.equalsIgnoreCase(0, UPDATE_RECORD) && record.fieldCount() >= 5) {
+            Application app = findRow(record.getInt(1), record.getTrimmed(2));
+            if (app == null) {
+                System.out.println("⚠️ Skipping journal record for unknown application: " + Arrays.toString(record.toArray()));
+                return true;
+            }
+            app.setStatus(record.getEnum(3, ApplicationStatus.values()));
+            app.setRequestWithdrawal(record.getBoolean(4));
+            return true;
+        }
+        return false;
+    }
+
+    // The application at row 'position' if it belongs to 'nric'
+    private Application findRow(int position, String nric) {
+        Application app = position >= 0 && position < store.size() ? store.get(position) : null;
+        return app != null && app.getApplicant().getNric().equals(nric) ? app : null;
+    }
+
     // Find applications that want to withdraw
     @Override
     public List<Application> findWithdrawalRequests() {
-        return store.stream()
-                    .filter(Application::isRequestWithdrawal)
-                    .collect(Collectors.toList());
+        return index.findWithdrawalRequests();
     }
 
     @Override
     public List<Application> findByBooked() {
-        return store.stream()
-                    .filter(a -> a.getStatus() == ApplicationStatus.BOOKED)
-                    .collect(Collectors.toList());
+        return index.findByStatus(ApplicationStatus.BOOKED);
     }
 
+    // One parsed CSV row, before its applicant and project are looked up
+    private record ApplicationRow(String nric, String projectName, FlatType flatType,
+                                  ApplicationStatus status, boolean requestWithdrawal) {
+    }
 }
@@ -1,23 +1,20 @@
 package repositories;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
 import entities.Applicant;
 import entities.BTOProject;
 import entities.Enquiry;
 import entities.User;
 import enums.EnquiryStatus;
 
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * CSV-backed implementation of EnquiryRepository.
+ *
+ * Lookups by id, applicant and project are answered from an {@link EnquiryIndex}.
  */
 public class CsvEnquiryRepository implements EnquiryRepository {
     private static final String CSV = "data/EnquiryList.csv";
@@ -27,12 +24,37 @@ public class CsvEnquiryRepository implements EnquiryRepository {
     private final UserRepository userRepo;
     private final ProjectRepository projRepo;
 
+    private final EnquiryIndex index = new EnquiryIndex();
+
     public CsvEnquiryRepository(UserRepository userRepo, ProjectRepository projRepo) {
+        this(userRepo, projRepo, EntityResolver.of(userRepo, projRepo));
+    }
+
+    /**
+     * Load using a resolver that already indexes {@code userRepo} and {@code projRepo}.
+     */
+    public CsvEnquiryRepository(UserRepository userRepo, ProjectRepository projRepo, EntityResolver resolver) {
         this.userRepo = userRepo;
         this.projRepo = projRepo;
         this.store    = new java.util.ArrayList<>();
-        loadFromCsv();
-        // sync Enquiry.counter
+        loadFromCsv(resolver);
+        store.forEach(index::add);
+        syncCounter();
+    }
+
+    /**
+     * Start from already loaded enquiries (e.g. a {@link BinarySnapshot}) instead of the CSV file.
+     */
+    public CsvEnquiryRepository(UserRepository userRepo, ProjectRepository projRepo, List<Enquiry> enquiries) {
+        this.userRepo = userRepo;
+        this.projRepo = projRepo;
+        this.store    = new java.util.ArrayList<>(enquiries);
+        store.forEach(index::add);
+        syncCounter();
+    }
+
+    // sync Enquiry.counter
+    private void syncCounter() {
         Enquiry.setCounter(store.stream()
                             .mapToInt(Enquiry::getEnquiryId)
                             .max().orElse(0) + 1);
@@ -41,21 +63,19 @@ public class CsvEnquiryRepository implements EnquiryRepository {
     @Override
     public void addEnquiry(Enquiry e) {
         store.add(e);
+        index.add(e);
         persist();
     }
 
     @Override
     public List<Enquiry> findByApplicant(String applicantNric) {
-        return store.stream()
-                    .filter(e -> e.getApplicant().getNric().equalsIgnoreCase(applicantNric))
-                    .collect(Collectors.toList());
+        return index.findByApplicant(applicantNric);
     }
 
     @Override
     public List<Enquiry> findByProject(String projectName) {
-        return store.stream()
-                    .filter(e -> e.getProject().getProjectName().equalsIgnoreCase(projectName))
-                    .collect(Collectors.toList());
+        BTOProject project = projRepo.findByName(projectName);
+        return project == null ? new java.util.ArrayList<>() : index.findByProject(project);
     }
 
     @Override
@@ -65,64 +85,82 @@ public class CsvEnquiryRepository implements EnquiryRepository {
 
     @Override
     public void persist() {
-        try (PrintWriter w = new PrintWriter(CSV)) {
-            w.println("Enquiry_ID,Applicant_Name,Applicant_NRIC,Project_Name,Content,Response,Status,Created_At,Last_Modified,Responded_At,Responded_By");
-            for (Enquiry e : store) {
-                w.printf("%d,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s%n",
-                    e.getEnquiryId(),
-                    e.getApplicant().getName(),
-                    e.getApplicant().getNric(),
-                    e.getProject().getProjectName(),
-                    escape(e.getContent()),
-                    e.getResponse() == null ? "" : escape(e.getResponse()),
-                    e.getStatus(),
-                    e.getCreatedAt().format(TS_FMT),
-                    e.getLastModified().format(TS_FMT),
-                    e.getRespondedAt() == null ? "" : e.getRespondedAt().format(TS_FMT),
-                    e.getRespondedBy() == null ? "" : e.getRespondedBy().getNric()
-                );
-            }
+        UnitOfWork.persist(this, this::flush);
+    }
+
+    private void flush() {
+        try {
+            DurableFileWriter.replace(CSV, w -> {
+                w.println("Enquiry_ID,Applicant_Name,Applicant_NRIC,Project_Name,Content,Response,Status,Created_At,Last_Modified,Responded_At,Responded_By");
+                for (Enquiry e : store) {
+                    w.printf("%d,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s%n",
+                        e.getEnquiryId(),
+                        e.getApplicant().getName(),
+                        e.getApplicant().getNric(),
+                        e.getProject().getProjectName(),
+                        escape(e.getContent()),
+                        e.getResponse() == null ? "" : escape(e.getResponse()),
+                        e.getStatus(),
+                        e.getCreatedAt().format(TS_FMT),
+                        e.getLastModified().format(TS_FMT),
+                        e.getRespondedAt() == null ? "" : e.getRespondedAt().format(TS_FMT),
+                        e.getRespondedBy() == null ? "" : e.getRespondedBy().getNric()
+                    );
+                }
+            });
         } catch (IOException ex) {
             throw new RuntimeException("Failed to persist enquiries", ex);
         }
     }
 
-    private void loadFromCsv() {
-        try (CSVReader r = new CSVReader(new FileReader(CSV))) {
-            String[] row;
-            boolean skip = true;
-            while ((row = r.readNext()) != null) {
-                if (skip) { skip = false; continue; }
-                int    id    = Integer.parseInt(row[0].trim());
-                String nric  = row[2].trim();
-                String proj  = row[3].trim();
-                String content = row[4];
-                String response= row[5].isEmpty() ? null : row[5].trim();
-                EnquiryStatus status = EnquiryStatus.valueOf(row[6].trim().toUpperCase());
-                LocalDateTime created    = LocalDateTime.parse(row[7].trim(), TS_FMT);
-                LocalDateTime modified   = LocalDateTime.parse(row[8].trim(), TS_FMT);
-                LocalDateTime responded  = row[9].isEmpty() ? null : LocalDateTime.parse(row[8].trim(), TS_FMT);
-                String respByNric        = row[10].trim();
-
-                Applicant applicant = (Applicant) userRepo.findByNric(nric);
-                if (applicant == null) {
-                    throw new RuntimeException("Applicant not found: " + nric);
-                }
-                BTOProject project  = projRepo.findByName(proj);
-                if (project == null) {
-                    throw new RuntimeException("Project not found: " + proj);
-                }
-                User responder = respByNric.isEmpty()
-                    ? null
-                    : (userRepo.findOfficerByNric(respByNric) != null) ? userRepo.findOfficerByNric(respByNric)
-                    : userRepo.findManagerByNric(respByNric);
+    private void loadFromCsv(EntityResolver resolver) {
+        List<EnquiryRow> rows;
+        try {
+            rows = ParallelCsvLoader.load(CSV, CsvEnquiryRepository::readRow);
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to load enquiries", ex);
+        }
 
-                Enquiry e = new Enquiry(id, applicant, project, content, response, status, created, modified, responded, responder);
-                store.add(e);
+        // hash-join every row against one snapshot of the users and projects
+        long start = System.nanoTime();
+        for (EnquiryRow row : rows) {
+            Applicant applicant = (Applicant) resolver.findUser(row.applicantNric());
+            if (applicant == null) {
+                throw new RuntimeException("Applicant not found: " + row.applicantNric());
             }
-        } catch (IOException | CsvValidationException ex) {
-            throw new RuntimeException("Failed to load enquiries", ex);
+            BTOProject project  = resolver.findProject(row.projectName());
+            if (project == null) {
+                throw new RuntimeException("Project not found: " + row.projectName());
+            }
+            User responder = null;
+            if (!row.responderNric().isEmpty()) {
+                responder = resolver.findOfficer(row.responderNric());
+                if (responder == null) {
+                    responder = resolver.findManager(row.responderNric());
+                }
+            }
+
+            Enquiry e = new Enquiry(row.id(), applicant, project, row.content(), row.response(), row.status(),
+                                    row.created(), row.modified(), row.responded(), responder);
+            store.add(e);
         }
+        StartupMetrics.addResolutionTime(System.nanoTime() - start);
+    }
+
+    // Runs on loader threads: only reads the current record
+    private static EnquiryRow readRow(BufferedCsvReader row) {
+        return new EnquiryRow(
+            row.getInt(0),
+            row.getTrimmed(2),
+            row.getTrimmed(3),
+            row.getString(4),
+            row.isEmpty(5) ? null : row.getTrimmed(5),
+            row.getEnum(6, EnquiryStatus.values()),
+            row.getDateTime(7),
+            row.getDateTime(8),
+            row.isEmpty(9) ? null : row.getDateTime(9),
+            row.getTrimmed(10)
+        );
     }
 
     private String escape(String s) {
@@ -131,9 +169,12 @@ public class CsvEnquiryRepository implements EnquiryRepository {
 
     @Override
     public Enquiry findById(int enquiryId) {
-        return store.stream()
-                    .filter(e -> e.getEnquiryId() == enquiryId)
-                    .findFirst()
-                    .orElse(null);
+        return index.findById(enquiryId);
+    }
+
+    // One parsed CSV row, before its users and project are looked up
+    private record EnquiryRow(int id, String applicantNric, String projectName, String content, String response,
+                              EnquiryStatus status, LocalDateTime created, LocalDateTime modified,
+                              LocalDateTime responded, String responderNric) {
     }
 }
@@ -1,60 +1,84 @@
 package repositories;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
 import entities.BTOProject;
 import entities.HDBManager;
+import enums.EligibilityClass;
 import enums.FlatType;
 import enums.VisibilityStatus;
 import filters.ProjectFilter;
+import filters.ProjectPage;
+import utils.DailyClock;
 
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * CSV-backed implementation of ProjectRepository.
+ *
+ * Filtered listings and the lookups by name and manager are served from a {@link ProjectIndex},
+ * kept in step with edits through each project's change listener.
  */
 
  public class CsvProjectRepository implements ProjectRepository {
     private static final String CSV_PATH = "data/ProjectList.csv";
     private final List<BTOProject> store = new ArrayList<>();
+    private final ProjectIndex index = new ProjectIndex();
     private final UserRepository userRepository;
-    private RegistrationRepository registrationRepository;
+    // registrations load after (and from) the projects; only needed when writing the Officers column
+    private final CompletableFuture<? extends RegistrationRepository> registrationRepository;
 
 
-    public CsvProjectRepository(UserRepository userRepository) {
-        this.userRepository        = userRepository;
-        loadFromCsv();
+    public CsvProjectRepository(UserRepository userRepository,
+                                CompletableFuture<? extends RegistrationRepository> registrationRepository) {
+        this(userRepository, registrationRepository, EntityResolver.of(userRepository));
     }
 
-    // Set registrationRepository after instantiation
-    public void setRegistrationRepository(RegistrationRepository registrationRepository) {
+    /**
+     * Load using a resolver that already indexes {@code userRepository}.
+     */
+    public CsvProjectRepository(UserRepository userRepository,
+                                CompletableFuture<? extends RegistrationRepository> registrationRepository,
+                                EntityResolver resolver) {
+        this.userRepository         = userRepository;
         this.registrationRepository = registrationRepository;
+        loadFromCsv(resolver);
+        store.forEach(this::track);
+    }
+
+    /**
+     * Start from already loaded projects (e.g. a {@link BinarySnapshot}) instead of the CSV file.
+     */
+    public CsvProjectRepository(UserRepository userRepository,
+                                CompletableFuture<? extends RegistrationRepository> registrationRepository,
+                                List<BTOProject> projects) {
+        this.userRepository         = userRepository;
+        this.registrationRepository = registrationRepository;
+        store.addAll(projects);
+        store.forEach(this::track);
     }
 
     @Override
     public void addProject(BTOProject project) {
         store.add(project);
+        track(project);
         persist();
     }
 
     @Override
     public void removeProject(BTOProject project) {
         store.remove(project);
+        index.remove(project);
         persist();
     }
 
     @Override
     public BTOProject findByName(String projectName) {
-        return store.stream()
-                    .filter(p -> p.getProjectName().equalsIgnoreCase(projectName))
-                    .findFirst()
-                    .orElse(null);
+        return index.findByName(projectName);
     }
 
     @Override
@@ -71,94 +95,98 @@ import java.util.stream.Collectors;
 
     @Override
     public List<BTOProject> findByManager(String managerNric) {
-        return store.stream()
-                    .filter(p -> p.getManager().getNric().equals(managerNric))
-                    .collect(Collectors.toList());
+        return index.findByManager(managerNric);
     }
 
     @Override
     public void persist() {
-        try (PrintWriter writer = new PrintWriter(CSV_PATH)) {
-            // header including “Officers” column
-            writer.println(
-                "Project_Name,Neighborhood," +
-                "Flat_Type_1,Flats_Available_1,Selling_Price_1," +
-                "Flat_Type_2,Flats_Available_2,Selling_Price_2," +
-                "Opening_Date,Closing_Date," +
-                "Manager,Officer_Slots,Officers"
-            );
-
-            DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE;
-
-            for (BTOProject p : store) {
-                // build pipe-delimited list of *approved* officer names
-                String officers = registrationRepository
-                    .findByProject(p.getProjectName())   // returns only APPROVED regs
-                    .stream()
-                    .map(r -> r.getOfficer().getName())
-                    .collect(Collectors.joining("|"));
-
-                // assume exactly two flat types
-                Iterator<Map.Entry<FlatType,Integer>> itQ = p.getFlatsAvailable().entrySet().iterator();
-                FlatType ft1 = itQ.next().getKey(); int avail1 = p.getFlatsAvailable().get(ft1);
-                FlatType ft2 = itQ.next().getKey(); int avail2 = p.getFlatsAvailable().get(ft2);
-
-                int price1 = p.getSellingPrice().get(ft1);
-                int price2 = p.getSellingPrice().get(ft2);
-
-                writer.printf(
-                    "%s,%s,%s,%d,%d,%s,%d,%d,%s,%s,%s,%d,%s%n",
-                    p.getProjectName(),
-                    p.getNeighborhood(),
-                    ft1, avail1, price1,
-                    ft2, avail2, price2,
-                    p.getOpenDate().format(fmt),
-                    p.getCloseDate().format(fmt),
-                    p.getManager().getName(),
-                    p.getAvailableOfficerSlots(),
-                    officers
+        UnitOfWork.persist(this, this::flush);
+    }
+
+    private void flush() {
+        RegistrationRepository registrations = registrationRepository.join();
+        try {
+            DurableFileWriter.replace(CSV_PATH, writer -> {
+                // header including “Officers” column
+                writer.println(
+                    "Project_Name,Neighborhood," +
+                    "Flat_Type_1,Flats_Available_1,Selling_Price_1," +
+                    "Flat_Type_2,Flats_Available_2,Selling_Price_2," +
+                    "Opening_Date,Closing_Date," +
+                    "Manager,Officer_Slots,Officers"
                 );
-            }
+
+                DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE;
+
+                for (BTOProject p : store) {
+                    // build pipe-delimited list of *approved* officer names
+                    String officers = registrations
+                        .findByProject(p)   // returns only APPROVED regs
+                        .stream()
+                        .map(r -> r.getOfficer().getName())
+                        .collect(Collectors.joining("|"));
+
+                    // assume exactly two flat types
+                    Map<FlatType,Integer> flats = p.getFlatsAvailable();
+                    Iterator<Map.Entry<FlatType,Integer>> itQ = flats.entrySet().iterator();
+                    FlatType ft1 = itQ.next().getKey(); int avail1 = flats.get(ft1);
+                    FlatType ft2 = itQ.next().getKey(); int avail2 = flats.get(ft2);
+
+                    int price1 = p.getSellingPrice().get(ft1);
+                    int price2 = p.getSellingPrice().get(ft2);
+
+                    writer.printf(
+                        "%s,%s,%s,%d,%d,%s,%d,%d,%s,%s,%s,%d,%s%n",
+                        p.getProjectName(),
+                        p.getNeighborhood(),
+                        ft1, avail1, price1,
+                        ft2, avail2, price2,
+                        p.getOpenDate().format(fmt),
+                        p.getCloseDate().format(fmt),
+                        p.getManager().getName(),
+                        p.getAvailableOfficerSlots(),
+                        officers
+                    );
+                }
+            });
         } catch (IOException e) {
             throw new RuntimeException("Failed to persist projects", e);
         }
     }
 
 
-    private void loadFromCsv() {
-        try (CSVReader reader = new CSVReader(new FileReader(CSV_PATH))) {
-            String[] row;
-            boolean skip = true;
-            DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE;
-    
-            while ((row = reader.readNext()) != null) {
-                if (skip) { skip = false; continue; }
+    private void loadFromCsv(EntityResolver resolver) {
+        try {
+            BufferedCsvReader row = BufferedCsvReader.open(CSV_PATH);
+            LocalDate today = DailyClock.system().today();
+            row.next(); // skip header
     
-                String name         = row[0].trim();
-                String neighborhood = row[1].trim();
+            while (row.next()) {
+                String name         = row.getTrimmed(0);
+                String neighborhood = row.getTrimmed(1);
     
-                FlatType ft1        = FlatType.valueOf(row[2].trim().toUpperCase());
-                int avail1          = Integer.parseInt(row[3].trim());
-                int price1          = Integer.parseInt(row[4].trim());
+                FlatType ft1        = row.getEnum(2, FlatType.values());
+                int avail1          = row.getInt(3);
+                int price1          = row.getInt(4);
     
-                FlatType ft2        = FlatType.valueOf(row[5].trim().toUpperCase());
-                int avail2          = Integer.parseInt(row[6].trim());
-                int price2          = Integer.parseInt(row[7].trim());
+                FlatType ft2        = row.getEnum(5, FlatType.values());
+                int avail2          = row.getInt(6);
+                int price2          = row.getInt(7);
     
-                LocalDate open      = LocalDate.parse(row[8].trim(), fmt);
-                LocalDate close     = LocalDate.parse(row[9].trim(), fmt);
+                LocalDate open      = row.getDate(8);
+                LocalDate close     = row.getDate(9);
     
-                String mgrName      = row[10].trim();
-                int slots           = Integer.parseInt(row[11].trim());
+                String mgrName      = row.getTrimmed(10);
+                int slots           = row.getInt(11);
     
-                VisibilityStatus vs = (!LocalDate.now().isBefore(open) && !LocalDate.now().isAfter(close))
+                VisibilityStatus vs = (!today.isBefore(open) && !today.isAfter(close))
                                       ? VisibilityStatus.VISIBLE
                                       : VisibilityStatus.HIDDEN;
     
                 Map<FlatType,Integer> quota = Map.of(ft1, avail1, ft2, avail2);
                 Map<FlatType,Integer> price = Map.of(ft1, price1, ft2, price2);
     
-                HDBManager mgr = (HDBManager) userRepository.findManagerByName(mgrName);
+                HDBManager mgr = resolver.findManagerByName(mgrName);
                 if (mgr == null) {
                     throw new IllegalStateException("Manager not found: " + mgrName);
                 }
@@ -173,38 +201,48 @@ import java.util.stream.Collectors;
                 // projects do *not* store officers in-memory; they're derived when needed
                 store.add(proj);
             }
-        } catch (IOException | CsvValidationException e) {
+        } catch (IOException e) {
             throw new RuntimeException("Failed to load projects", e);
         }
     }
 
     @Override
     public List<BTOProject> findFilteredProjects(ProjectFilter filter) {
-        // 1) Filter by projectName, location, flatType
-        List<BTOProject> filtered = store.stream()
-            .filter(filter::matches)
-            .collect(Collectors.toList());
-
-        // 2) Sort according to filter.sortBy
-        Comparator<BTOProject> comparator;
-        switch (filter.getSortBy()) {
-            case PROJECT_DESC:
-                comparator = Comparator.comparing(BTOProject::getProjectName).reversed();
-                break;
-            case LOCATION_ASC:
-                comparator = Comparator.comparing(BTOProject::getNeighborhood);
-                break;
-            case LOCATION_DESC:
-                comparator = Comparator.comparing(BTOProject::getNeighborhood).reversed();
-                break;
-            case PROJECT_ASC:
-            default:
-                comparator = Comparator.comparing(BTOProject::getProjectName);
-        }
+        return index.find(filter, null, Integer.MAX_VALUE).getProjects();
+    }
+
+    @Override
+    public ProjectPage findFilteredProjects(ProjectFilter filter, ProjectPage.Cursor after, int limit) {
+        return index.find(filter, after, limit);
+    }
+
+    @Override
+    public boolean isEligible(EligibilityClass eligibilityClass, BTOProject project) {
+        return index.isEligible(eligibilityClass, project);
+    }
+
+    @Override
+    public List<String> suggestProjectNames(String text, int limit, Predicate<BTOProject> accept) {
+        return index.suggestNames(text, limit, accept);
+    }
 
-        return filtered.stream()
-                       .sorted(comparator)
-                       .collect(Collectors.toList());
+    @Override
+    public List<String> suggestNeighborhoods(String text, int limit, Predicate<BTOProject> accept) {
+        return index.suggestNeighborhoods(text, limit, accept);
+    }
+
+    @Override
+    public List<BTOProject> findOverlapping(LocalDate from, LocalDate to) {
+        return index.findOverlapping(from, to);
     }
 
+    @Override
+    public List<BTOProject> findOverlappingByManager(String managerNric, LocalDate from, LocalDate to) {
+        return index.findOverlappingByManager(managerNric, from, to);
+    }
+
+    private void track(BTOProject project) {
+        index.add(project);
+        project.addChangeListener(index::reindex);
+    }
 }
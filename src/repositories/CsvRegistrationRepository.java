@@ -1,23 +1,20 @@
 package repositories;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
 import entities.BTOProject;
 import entities.HDBOfficer;
 import entities.Registration;
 import entities.HDBManager;
 import enums.RegistrationStatus;
 
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
 
 /**
  * CSV-backed implementation of RegistrationRepository.
+ *
+ * Queries are answered from a {@link RegistrationIndex} instead of scanning every registration;
+ * status changes reach it through the registration's change listener.
  */
 public class CsvRegistrationRepository implements RegistrationRepository {
     private static final String CSV_PATH = "data/RegistrationList.csv";
@@ -25,70 +22,102 @@ public class CsvRegistrationRepository implements RegistrationRepository {
     private final List<Registration> store = new ArrayList<>();
     private final UserRepository userRepo;
     private final ProjectRepository projectRepo;
+    private final RegistrationIndex index = new RegistrationIndex();
 
     public CsvRegistrationRepository(UserRepository userRepo, ProjectRepository projectRepo) {
+        this(userRepo, projectRepo, EntityResolver.of(userRepo, projectRepo));
+    }
+
+    /**
+     * Load using a resolver that already indexes {@code userRepo} and {@code projectRepo}.
+     */
+    public CsvRegistrationRepository(UserRepository userRepo, ProjectRepository projectRepo, EntityResolver resolver) {
+        this.userRepo    = userRepo;
+        this.projectRepo = projectRepo;
+        loadFromCsv(resolver);
+        store.forEach(this::track);
+    }
+
+    /**
+     * Start from already loaded registrations (e.g. a {@link BinarySnapshot}) instead of the CSV file.
+     */
+    public CsvRegistrationRepository(UserRepository userRepo, ProjectRepository projectRepo,
+                                     List<Registration> registrations) {
         this.userRepo    = userRepo;
         this.projectRepo = projectRepo;
-        loadFromCsv();
+        store.addAll(registrations);
+        store.forEach(this::track);
     }
 
     @Override
     public void addRegistration(Registration registration) {
         store.add(registration);
+        track(registration);
         persist();
     }
 
     @Override
     public List<Registration> findByOfficer(String officerNric) {
-        return store.stream()
-                    .filter(r -> r.getOfficer().getNric().equalsIgnoreCase(officerNric))
-                    .collect(Collectors.toList());
+        return index.findByOfficer(officerNric);
     }
 
     @Override
     public List<Registration> findByProject(String projectName) {
-        return store.stream()
-                    .filter(r -> r.getProject().getProjectName().equalsIgnoreCase(projectName)
-                              && r.getStatus() == RegistrationStatus.APPROVED)
-                    .collect(Collectors.toList());
+        BTOProject project = projectRepo.findByName(projectName);
+        return project == null ? new ArrayList<>() : index.findApprovedByProject(project);
+    }
+
+    @Override
+    public List<Registration> findByProject(BTOProject project) {
+        return index.findApprovedByProject(project);
+    }
+
+    @Override
+    public List<Registration> findByStatus(RegistrationStatus status) {
+        return index.findByStatus(status);
     }
 
     @Override
     public void persist() {
-        try (PrintWriter writer = new PrintWriter(CSV_PATH)) {
-            writer.println("Officer_NRIC,Officer_Name,Project_Name,Registration_Status,SubmittedAt,ReviewedAt");
-            for (Registration r : store) {
-                writer.printf("%s,%s,%s,%s,%s,%s%n",
-                    r.getOfficer().getNric(),
-                    r.getOfficer().getName(),
-                    r.getProject().getProjectName(),
-                    r.getStatus(),
-                    r.getSubmittedAt().toString(),
-                    r.getReviewedAt() != null ? r.getReviewedAt().toString() : ""
-                );
-            }
+        UnitOfWork.persist(this, this::flush);
+    }
+
+    private void flush() {
+        try {
+            DurableFileWriter.replace(CSV_PATH, writer -> {
+                writer.println("Officer_NRIC,Officer_Name,Project_Name,Registration_Status,SubmittedAt,ReviewedAt");
+                for (Registration r : store) {
+                    writer.printf("%s,%s,%s,%s,%s,%s%n",
+                        r.getOfficer().getNric(),
+                        r.getOfficer().getName(),
+                        r.getProject().getProjectName(),
+                        r.getStatus(),
+                        r.getSubmittedAt().toString(),
+                        r.getReviewedAt() != null ? r.getReviewedAt().toString() : ""
+                    );
+                }
+            });
         } catch (IOException e) {
             throw new RuntimeException("Failed to persist registrations", e);
         }
     }
 
-    private void loadFromCsv() {
-        try (CSVReader reader = new CSVReader(new FileReader(CSV_PATH))) {
-            String[] row;
-            boolean skip = true;
-            while ((row = reader.readNext()) != null) {
-                if (skip) { skip = false; continue; }
-                String officerNric = row[0].trim();
-                String projectName = row[2].trim();
-                RegistrationStatus status    = RegistrationStatus.valueOf(row[3].trim().toUpperCase());
-                LocalDate submittedAt    = LocalDate.parse(row[4].trim());
-                LocalDate reviewedAt     = row[5].isEmpty() ? null : LocalDate.parse(row[5].trim());
+    private void loadFromCsv(EntityResolver resolver) {
+        try {
+            BufferedCsvReader row = BufferedCsvReader.open(CSV_PATH);
+            row.next(); // skip header
+            while (row.next()) {
+                String officerNric = row.getTrimmed(0);
+                String projectName = row.getTrimmed(2);
+                RegistrationStatus status    = row.getEnum(3, RegistrationStatus.values());
+                LocalDate submittedAt    = row.getDate(4);
+                LocalDate reviewedAt     = row.isEmpty(5) ? null : row.getDate(5);
 
-                HDBOfficer officer = (HDBOfficer) userRepo.findByNric(officerNric);
+                HDBOfficer officer = (HDBOfficer) resolver.findUser(officerNric);
                 if (officer == null) {
                     throw new RuntimeException("Officer not found: " + officerNric);
                 }
-                BTOProject project = projectRepo.findByName(projectName);
+                BTOProject project = resolver.findProject(projectName);
                 if (project == null) {
                     throw new RuntimeException("Project not found: " + projectName);
                 }
@@ -97,18 +126,19 @@ public class CsvRegistrationRepository implements RegistrationRepository {
                 Registration reg = new Registration(officer, project, status, submittedAt, reviewedAt);
                 store.add(reg);
             }
-        } catch (IOException | CsvValidationException e) {
+        } catch (IOException e) {
             throw new RuntimeException("Failed to load registrations", e);
         }
     }
 
     @Override
     public Registration findSpecificRegistration(String officerNric, String projectName) {
-        return store.stream()
-                    .filter(r -> r.getOfficer().getNric().equalsIgnoreCase(officerNric)
-                              && r.getProject().getProjectName().equalsIgnoreCase(projectName))
-                    .findFirst()
-                    .orElse(null);
+        return index.findSpecific(officerNric, projectName);
+    }
+
+    @Override
+    public Registration findSpecificRegistration(String officerNric, BTOProject project) {
+        return index.findSpecific(officerNric, project);
     }
 
     @Override
@@ -118,8 +148,11 @@ public class CsvRegistrationRepository implements RegistrationRepository {
 
     @Override
     public List<Registration> findByManager(HDBManager manager) {
-        return store.stream()
-                    .filter(r -> r.getProject().getManager().equals(manager))
-                    .collect(Collectors.toList());
+        return index.findByManager(manager);
+    }
+
+    private void track(Registration registration) {
+        index.add(registration);
+        registration.addChangeListener(index::reindex);
     }
 }
@@ -1,18 +1,14 @@
 package repositories;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
 import entities.Applicant;
 import entities.HDBManager;
 import entities.HDBOfficer;
 import entities.User;
 import enums.MaritalStatus;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * CSV-backed implementation of UserRepository.
@@ -24,24 +20,33 @@ public class CsvUserRepository implements UserRepository {
 
     private final List<User> store = new ArrayList<>();
 
+    private final UserIndex index = new UserIndex();
+
     public CsvUserRepository() {
         loadApplicants();
         loadOfficers();
         loadManagers();
+        store.forEach(index::add);
+    }
+
+    /**
+     * Start from already loaded users (e.g. a {@link BinarySnapshot}) instead of the CSV files.
+     */
+    public CsvUserRepository(List<User> users) {
+        store.addAll(users);
+        store.forEach(index::add);
     }
 
     @Override
     public void addUser(User user) {
         store.add(user);
+        index.add(user);
         persist(); // immediately save to CSV
     }
 
     @Override
     public User findByNric(String nric) {
-        return store.stream()
-                .filter(u -> u.getNric().equalsIgnoreCase(nric))
-                .findFirst()
-                .orElse(null);
+        return index.findByNric(nric);
     }
 
     @Override
@@ -51,115 +56,91 @@ public class CsvUserRepository implements UserRepository {
 
     @Override
     public List<Applicant> findAllApplicants() {
-        return store.stream()
-                .filter(u -> u instanceof Applicant)
-                .map(u -> (Applicant) u)
-                .collect(Collectors.toList());
+        return index.findAllApplicants();
     }
 
     @Override
     public List<HDBOfficer> findAllOfficers() {
-        return store.stream()
-                .filter(u -> u instanceof HDBOfficer)
-                .map(u -> (HDBOfficer) u)
-                .collect(Collectors.toList());
+        return index.findAllOfficers();
     }
 
     @Override
     public List<HDBManager> findAllManagers() {
-        return store.stream()
-                .filter(u -> u instanceof HDBManager)
-                .map(u -> (HDBManager) u)
-                .collect(Collectors.toList());
+        return index.findAllManagers();
     }
 
     @Override
     public HDBManager findManagerByName(String name) {
-        return store.stream()
-                .filter(u -> u instanceof HDBManager && u.getName().equalsIgnoreCase(name))
-                .map(u -> (HDBManager) u)
-                .findFirst()
-                .orElse(null);
+        return index.findManagerByName(name);
     }
 
     @Override
     public HDBOfficer findOfficerByName(String name) {
-        return store.stream()
-                .filter(u -> u instanceof HDBOfficer && u.getName().equalsIgnoreCase(name))
-                .map(u -> (HDBOfficer) u)
-                .findFirst()
-                .orElse(null);
+        return index.findOfficerByName(name);
     }
 
     @Override
     public void persist() {
-        try (
-                PrintWriter aw = new PrintWriter(APPLICANT_CSV);
-                PrintWriter ow = new PrintWriter(OFFICER_CSV);
-                PrintWriter mw = new PrintWriter(MANAGER_CSV)
-        ) {
-            aw.println("Name,NRIC,Age,Marital_Status,Password");
-            ow.println("Name,NRIC,Age,Marital_Status,Password");
-            mw.println("Name,NRIC,Age,Marital_Status,Password");
-
-            for (User u : store) {
-                String line = String.format(
-                        "%s,%s,%d,%s,%s",
-                        u.getName(), u.getNric(),
-                        u.getAge(), u.getMaritalStatus(),
-                        u.getPassword()
-                );
-                if (u instanceof HDBManager) {
-                    mw.println(line);
-                } else if (u instanceof HDBOfficer) {
-                    ow.println(line);
-                } else if (u instanceof Applicant) {
-                    aw.println(line);
-                }
-            }
+        UnitOfWork.persist(this, this::flush);
+    }
+
+    private void flush() {
+        try {
+            // each file is replaced atomically on its own
+            DurableFileWriter.replace(APPLICANT_CSV, writer -> writeUsers(writer, Applicant.class));
+            DurableFileWriter.replace(OFFICER_CSV,   writer -> writeUsers(writer, HDBOfficer.class));
+            DurableFileWriter.replace(MANAGER_CSV,   writer -> writeUsers(writer, HDBManager.class));
         } catch (IOException e) {
             throw new RuntimeException("Failed to persist users", e);
         }
     }
 
+    // Officers are also Applicants, so match on the exact class rather than instanceof
+    private void writeUsers(PrintWriter writer, Class<? extends User> type) {
+        writer.println("Name,NRIC,Age,Marital_Status,Password");
+        for (User u : store) {
+            if (u.getClass() != type) {
+                continue;
+            }
+            writer.println(String.format(
+                    "%s,%s,%d,%s,%s",
+                    u.getName(), u.getNric(),
+                    u.getAge(), u.getMaritalStatus(),
+                    u.getPassword()
+            ));
+        }
+    }
+
     @Override
     public User findOfficerByNric(String nric) {
-        return store.stream()
-                .filter(u -> u instanceof HDBOfficer && u.getNric().equalsIgnoreCase(nric))
-                .map(u -> (HDBOfficer) u)
-                .findFirst()
-                .orElse(null);
+        return index.findOfficerByNric(nric);
     }
 
     @Override
     public User findManagerByNric(String nric) {
-        return store.stream()
-                .filter(u -> u instanceof HDBManager && u.getName().equalsIgnoreCase(nric))
-                .map(u -> (HDBManager) u)
-                .findFirst()
-                .orElse(null);
+        return index.findManagerByNric(nric);
     }
 
     // -- private CSV loading helpers --
 
     private void loadApplicants() {
         loadCsv(APPLICANT_CSV, row -> {
-            String name = row[0].trim();
-            String nric = row[1].trim();
-            int age     = Integer.parseInt(row[2].trim());
-            MaritalStatus ms = MaritalStatus.valueOf(row[3].trim().toUpperCase());
-            String pwd  = row[4].trim();
+            String name = row.getTrimmed(0);
+            String nric = row.getTrimmed(1);
+            int age     = row.getInt(2);
+            MaritalStatus ms = row.getEnum(3, MaritalStatus.values());
+            String pwd  = row.getTrimmed(4);
             store.add(new Applicant(name, nric, age, ms, pwd));
         });
     }
 
     private void loadOfficers() {
         loadCsv(OFFICER_CSV, row -> {
-            String name = row[0].trim();
-            String nric = row[1].trim();
-            int age     = Integer.parseInt(row[2].trim());
-            MaritalStatus ms = MaritalStatus.valueOf(row[3].trim().toUpperCase());
-            String pwd  = row[4].trim();
+            String name = row.getTrimmed(0);
+            String nric = row.getTrimmed(1);
+            int age     = row.getInt(2);
+            MaritalStatus ms = row.getEnum(3, MaritalStatus.values());
+            String pwd  = row.getTrimmed(4);
             HDBOfficer obj = new HDBOfficer(name, nric, age, ms, pwd);
             // System.out.println(obj.getRole());
             store.add(obj);
@@ -168,31 +149,30 @@ public class CsvUserRepository implements UserRepository {
 
     private void loadManagers() {
         loadCsv(MANAGER_CSV, row -> {
-            String name = row[0].trim();
-            String nric = row[1].trim();
-            int age     = Integer.parseInt(row[2].trim());
-            MaritalStatus ms = MaritalStatus.valueOf(row[3].trim().toUpperCase());
-            String pwd  = row[4].trim();
+            String name = row.getTrimmed(0);
+            String nric = row.getTrimmed(1);
+            int age     = row.getInt(2);
+            MaritalStatus ms = row.getEnum(3, MaritalStatus.values());
+            String pwd  = row.getTrimmed(4);
             store.add(new HDBManager(name, nric, age, ms, pwd));
         });
     }
 
     private void loadCsv(String path, CsvRowConsumer consumer) {
-        try (CSVReader reader = new CSVReader(new FileReader(path))) {
-            String[] row;
-            boolean skip = true;
-            while ((row = reader.readNext()) != null) {
-                if (skip) { skip = false; continue; }
-                consumer.accept(row);
+        try {
+            BufferedCsvReader reader = BufferedCsvReader.open(path);
+            reader.next(); // skip header
+            while (reader.next()) {
+                consumer.accept(reader);
             }
-        } catch (IOException | CsvValidationException e) {
+        } catch (IOException e) {
             throw new RuntimeException("Failed to load " + path, e);
         }
     }
 
     @FunctionalInterface
     private interface CsvRowConsumer {
-        void accept(String[] row);
+        void accept(BufferedCsvReader row);
     }
 
 
@@ -0,0 +1,350 @@
+package repositories;
+
+import enums.DurabilityMode;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Crash-safe file output shared by all CSV repositories.
+ *
+ * A replace never truncates the live file: the new content goes to a temp file next to it,
+ * which is synced and then atomically renamed over the original. How hard the data is pushed
+ * to disk depends on the configured {@link DurabilityMode}:
+ * <ul>
+ *     <li>FSYNC_EVERY_COMMIT - every write is fsynced before the call returns.</li>
+ *     <li>GROUP_COMMIT - writes are collected for a short interval and synced together in one
+ *         round; writes to the same file within a round are merged, and all renames of the round
+ *         share a single directory sync. The caller still blocks until its round is durable.</li>
+ *     <li>OS_BUFFERED - writes are left in the OS page cache (still atomic, not power-loss safe).</li>
+ * </ul>
+ * Independently of the mode, writes can be handed to a background writer thread
+ * (see {@link #enableAsync(int)}) so that callers do not wait for the disk at all.
+ */
+public final class DurableFileWriter {
+    private static final Charset CHARSET = StandardCharsets.UTF_8; // BufferedCsvReader decodes UTF-8
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Object IO_LOCK = new Object(); // direct writes and commit rounds never touch a file at the same time
+
+    private static volatile DurabilityMode mode = DurabilityMode.FSYNC_EVERY_COMMIT;
+    private static GroupCommitter committer;
+    private static AsyncPersistenceExecutor asyncExecutor;
+
+    private DurableFileWriter() {
+    }
+
+    /**
+     * Select the durability mode. The group-commit interval is only used by GROUP_COMMIT.
+     */
+    public static synchronized void configure(DurabilityMode newMode, long groupCommitIntervalMs) {
+        if (committer != null) {
+            committer.stop();
+            committer = null;
+        }
+        if (newMode == DurabilityMode.GROUP_COMMIT) {
+            committer = new GroupCommitter(groupCommitIntervalMs);
+            committer.start();
+        }
+        mode = newMode;
+    }
+
+    public static DurabilityMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Route all writes through a background writer thread with a queue of at most
+     * {@code queueCapacity} files. Callers only block when the queue is full.
+     */
+    public static synchronized void enableAsync(int queueCapacity) {
+        if (asyncExecutor == null) {
+            asyncExecutor = new AsyncPersistenceExecutor(queueCapacity);
+            asyncExecutor.start();
+        }
+    }
+
+    /**
+     * Atomically replace the file at {@code path} with whatever {@code body} prints.
+     */
+    public static void replace(String path, Consumer<PrintWriter> body) throws IOException {
+        write(Paths.get(path), render(body), false);
+    }
+
+    /**
+     * Append whatever {@code body} prints to the file at {@code path}, creating it if needed.
+     */
+    public static void append(String path, Consumer<PrintWriter> body) throws IOException {
+        write(Paths.get(path), render(body), true);
+    }
+
+    /**
+     * Block until every write handed to the background writer has reached the file system.
+     * Returns immediately when asynchronous persistence is off.
+     */
+    public static void awaitPendingWrites() throws IOException {
+        AsyncPersistenceExecutor async;
+        synchronized (DurableFileWriter.class) {
+            async = asyncExecutor;
+        }
+        if (async != null) {
+            async.drain();
+        }
+    }
+
+    /**
+     * Drain any queued background writes, flush any outstanding group-commit round
+     * and stop both helper threads.
+     */
+    public static void shutdown() {
+        AsyncPersistenceExecutor async;
+        synchronized (DurableFileWriter.class) {
+            async = asyncExecutor;
+            asyncExecutor = null; // new writes go straight through from here on
+        }
+        if (async != null) {
+            // outside the class lock: the writer thread still needs it to finish the queue
+            try {
+                async.shutdown();
+            } catch (IOException e) {
+                System.err.println("⚠️ Some background writes failed: " + e.getMessage());
+            }
+        }
+        synchronized (DurableFileWriter.class) {
+            if (committer != null) {
+                committer.stop();
+                committer = null;
+            }
+            mode = DurabilityMode.FSYNC_EVERY_COMMIT;
+        }
+    }
+
+    private static String render(Consumer<PrintWriter> body) {
+        StringWriter buffer = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(buffer)) {
+            body.accept(writer);
+        }
+        return buffer.toString();
+    }
+
+    private static void write(Path path, String content, boolean append) throws IOException {
+        AsyncPersistenceExecutor async;
+        synchronized (DurableFileWriter.class) {
+            async = asyncExecutor;
+        }
+        if (async == null || async.isWriterThread()) {
+            writeThrough(path, content, append);
+            return;
+        }
+        try {
+            async.submit(path, content, append);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the persistence queue", e);
+        }
+    }
+
+    // Performs the write on the calling thread according to the durability mode.
+    static void writeThrough(Path path, String content, boolean append) throws IOException {
+        GroupCommitter groupCommitter;
+        synchronized (DurableFileWriter.class) {
+            groupCommitter = committer;
+        }
+        CompletableFuture<Void> round = groupCommitter == null ? null : groupCommitter.submit(path, content, append);
+        if (round == null) {
+            boolean sync = mode != DurabilityMode.OS_BUFFERED;
+            synchronized (IO_LOCK) {
+                if (append) {
+                    appendNow(path, content, sync);
+                } else {
+                    replaceNow(path, content, sync);
+                    if (sync) {
+                        syncDirectory(path.toAbsolutePath().getParent());
+                    }
+                }
+            }
+            return;
+        }
+        try {
+            round.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    private static void replaceNow(Path path, String content, boolean sync) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, content);
+            if (sync) {
+                channel.force(true);
+            }
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void appendNow(Path path, String content, boolean sync) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writeFully(channel, content);
+            if (sync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, String content) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(content.getBytes(CHARSET));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    // Makes the rename itself durable. Not every platform allows opening a directory, so this is best-effort.
+    private static void syncDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // directory sync unsupported here
+        }
+    }
+
+    /**
+     * Collects writes from every repository for one interval and makes them durable as a single round.
+     */
+    private static final class GroupCommitter implements Runnable {
+        private final long intervalMs;
+        private final Thread thread;
+        private Map<Path, PendingWrite> batch = new LinkedHashMap<>();
+        private CompletableFuture<Void> round = new CompletableFuture<>();
+        private boolean running = true;
+
+        GroupCommitter(long intervalMs) {
+            this.intervalMs = Math.max(1, intervalMs);
+            this.thread = new Thread(this, "bto-group-commit");
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        // Returns null once the committer is stopping; the caller then writes directly.
+        synchronized CompletableFuture<Void> submit(Path path, String content, boolean append) {
+            if (!running) {
+                return null;
+            }
+            PendingWrite write = batch.computeIfAbsent(path, p -> new PendingWrite());
+            if (append) {
+                write.content.append(content);
+            } else {
+                // a full replace supersedes anything queued for this file earlier in the round
+                write.content.setLength(0);
+                write.content.append(content);
+                write.replace = true;
+            }
+            return round;
+        }
+
+        void stop() {
+            synchronized (this) {
+                running = false;
+                notifyAll();
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean more = true;
+            while (more) {
+                Map<Path, PendingWrite> toCommit;
+                CompletableFuture<Void> done;
+                synchronized (this) {
+                    if (running) {
+                        try {
+                            wait(intervalMs);
+                        } catch (InterruptedException e) {
+                            running = false;
+                        }
+                    }
+                    more = running;
+                    toCommit = batch;
+                    done = round;
+                    batch = new LinkedHashMap<>();
+                    round = new CompletableFuture<>();
+                }
+                if (toCommit.isEmpty()) {
+                    done.complete(null);
+                    continue;
+                }
+                try {
+                    synchronized (IO_LOCK) {
+                        commit(toCommit);
+                    }
+                    done.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    done.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void commit(Map<Path, PendingWrite> writes) throws IOException {
+            Set<Path> renamed = new LinkedHashSet<>();
+            for (Map.Entry<Path, PendingWrite> entry : writes.entrySet()) {
+                PendingWrite write = entry.getValue();
+                if (write.replace) {
+                    replaceNow(entry.getKey(), write.content.toString(), true);
+                    renamed.add(entry.getKey());
+                } else {
+                    appendNow(entry.getKey(), write.content.toString(), true);
+                }
+            }
+            // one directory sync covers every rename in this round
+            Set<Path> dirs = new LinkedHashSet<>();
+            for (Path path : renamed) {
+                dirs.add(path.toAbsolutePath().getParent());
+            }
+            for (Path dir : dirs) {
+                syncDirectory(dir);
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        private final StringBuilder content = new StringBuilder();
+        private boolean replace;
+    }
+}
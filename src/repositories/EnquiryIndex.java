@@ -0,0 +1,48 @@
+package repositories;
+
+import entities.BTOProject;
+import entities.Enquiry;
+import indexes.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Indexes over the enquiries of a repository by id, applicant and project.
+ *
+ * An enquiry's id, applicant and project never change, so the indexes are filled once when
+ * the enquiry is added and never need updating. Results keep the order the enquiries were
+ * added in.
+ */
+final class EnquiryIndex {
+    private final IntObjectMap<Enquiry> byId = new IntObjectMap<>();
+    private final Map<String, List<Enquiry>> byApplicant = new HashMap<>();          // canonical NRIC
+    private final Map<BTOProject, List<Enquiry>> byProject = new IdentityHashMap<>(); // survives renames
+
+    // The first enquiry per id wins, as the old linear scan returned
+    void add(Enquiry e) {
+        byId.putIfAbsent(e.getEnquiryId(), e);
+        byApplicant.computeIfAbsent(key(e.getApplicant().getNric()), k -> new ArrayList<>()).add(e);
+        byProject.computeIfAbsent(e.getProject(), p -> new ArrayList<>()).add(e);
+    }
+
+    Enquiry findById(int enquiryId) {
+        return byId.get(enquiryId);
+    }
+
+    List<Enquiry> findByApplicant(String applicantNric) {
+        return new ArrayList<>(byApplicant.getOrDefault(key(applicantNric), List.of()));
+    }
+
+    List<Enquiry> findByProject(BTOProject project) {
+        return new ArrayList<>(byProject.getOrDefault(project, List.of()));
+    }
+
+    private static String key(String nric) {
+        return nric == null ? null : nric.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,109 @@
+package repositories;
+
+import entities.BTOProject;
+import entities.HDBManager;
+import entities.HDBOfficer;
+import entities.User;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lookup tables used to resolve the NRIC and name references of freshly loaded rows.
+ *
+ * The repositories answer their find methods from hash indexes ({@link UserIndex},
+ * {@link ProjectIndex}), but those are live structures that change as entities are added and
+ * the project index locks on every call. A resolver snapshots the users (and optionally
+ * projects) into plain hash maps once, typed by role, so the rows of a large file are joined
+ * in constant time each without locking. Keys are case-insensitive and the first entity with
+ * a given key wins, matching the find methods.
+ *
+ * The maps are never modified after construction, so one resolver may be read from several
+ * threads once it has been safely published.
+ */
+public final class EntityResolver {
+    private final Map<String, User> usersByNric;
+    private final Map<String, HDBOfficer> officersByNric;
+    private final Map<String, HDBManager> managersByNric;
+    private final Map<String, HDBManager> managersByName;
+    private final Map<String, BTOProject> projectsByName = new HashMap<>();
+
+    private EntityResolver(UserRepository users, ProjectRepository projects) {
+        long start = System.nanoTime();
+        usersByNric    = new HashMap<>();
+        officersByNric = new HashMap<>();
+        managersByNric = new HashMap<>();
+        managersByName = new HashMap<>();
+        for (User u : users.findAll()) {
+            usersByNric.putIfAbsent(key(u.getNric()), u);
+            if (u instanceof HDBOfficer officer) {
+                officersByNric.putIfAbsent(key(officer.getNric()), officer);
+            }
+            if (u instanceof HDBManager manager) {
+                managersByNric.putIfAbsent(key(manager.getNric()), manager);
+                managersByName.putIfAbsent(key(manager.getName()), manager);
+            }
+        }
+        indexProjects(projects);
+        StartupMetrics.addResolutionTime(System.nanoTime() - start);
+    }
+
+    // shares the user maps of 'base'
+    private EntityResolver(EntityResolver base, ProjectRepository projects) {
+        long start = System.nanoTime();
+        usersByNric    = base.usersByNric;
+        officersByNric = base.officersByNric;
+        managersByNric = base.managersByNric;
+        managersByName = base.managersByName;
+        indexProjects(projects);
+        StartupMetrics.addResolutionTime(System.nanoTime() - start);
+    }
+
+    private void indexProjects(ProjectRepository projects) {
+        if (projects != null) {
+            for (BTOProject p : projects.findAll()) {
+                projectsByName.putIfAbsent(key(p.getProjectName()), p);
+            }
+        }
+    }
+
+    /** Resolver over users only, for loading the projects themselves. */
+    public static EntityResolver of(UserRepository users) {
+        return new EntityResolver(users, null);
+    }
+
+    /** Resolver over users and projects. */
+    public static EntityResolver of(UserRepository users, ProjectRepository projects) {
+        return new EntityResolver(users, projects);
+    }
+
+    /** Resolver over the same users plus the projects of {@code projects}, without re-indexing the users. */
+    public EntityResolver withProjects(ProjectRepository projects) {
+        return new EntityResolver(this, projects);
+    }
+
+    public User findUser(String nric) {
+        return usersByNric.get(key(nric));
+    }
+
+    public HDBOfficer findOfficer(String nric) {
+        return officersByNric.get(key(nric));
+    }
+
+    public HDBManager findManager(String nric) {
+        return managersByNric.get(key(nric));
+    }
+
+    public HDBManager findManagerByName(String name) {
+        return managersByName.get(key(name));
+    }
+
+    public BTOProject findProject(String name) {
+        return projectsByName.get(key(name));
+    }
+
+    private static String key(String s) {
+        return s == null ? null : s.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,114 @@
+package repositories;
+
+import entities.Applicant;
+import entities.Application;
+import entities.BTOProject;
+import entities.User;
+import enums.ApplicationStatus;
+import enums.FlatType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC-backed implementation of ApplicationRepository.
+ *
+ * Every persist() is already an incremental write of the changed rows, so there is no journal
+ * and checkpoint() simply persists. Queries are answered from an {@link ApplicationIndex}.
+ */
+public class JdbcApplicationRepository implements ApplicationRepository {
+    private final List<Application> store = new ArrayList<>();
+    private final ApplicationIndex index = new ApplicationIndex();
+    private final JdbcTable<Application> table;
+    private final JdbcProjectRepository projectRepository;
+
+    public JdbcApplicationRepository(JdbcDatabase db, UserRepository userRepository, JdbcProjectRepository projectRepository) {
+        this.projectRepository = projectRepository;
+        this.table = new JdbcTable<>(db, "applications",
+            List.of("applicant_nric", "project_seq", "flat_type", "status", "request_withdrawal"),
+            a -> new Object[] {
+                a.getApplicant().getNric(), projectRepository.seqOf(a.getProject()), a.getFlatType().name(),
+                a.getStatus().name(), a.isRequestWithdrawal()
+            });
+
+        EntityResolver resolver = EntityResolver.of(userRepository);
+        Map<Long, BTOProject> projects = projectRepository.bySeq();
+        store.addAll(table.load(rs -> {
+            User user          = resolver.findUser(rs.getString(2));
+            BTOProject project = projects.get(rs.getObject(3, Long.class));
+            if (!(user instanceof Applicant applicant) || project == null) {
+                System.out.printf("⚠️ Skipping row: user or project not found for NRIC=%s, project=%s%n",
+                    rs.getString(2), rs.getString(3));
+                return null;
+            }
+            return new Application(applicant, project,
+                FlatType.valueOf(rs.getString(4)),
+                ApplicationStatus.valueOf(rs.getString(5)),
+                rs.getBoolean(6));
+        }));
+        store.forEach(this::track);
+    }
+
+    @Override
+    public void addApplication(Application application) {
+        store.add(application);
+        track(application);
+        table.added(application);
+        persist();
+    }
+
+    @Override
+    public Application findByNRIC(String nric) {
+        return index.findByNric(nric);
+    }
+
+    @Override
+    public List<Application> findByProject(String projectName) {
+        BTOProject project = projectRepository.findByName(projectName);
+        return project == null ? new ArrayList<>() : index.findByProject(project);
+    }
+
+    @Override
+    public List<Application> findPendingApplications(String projectName) {
+        return findByProject(projectName).stream()
+                    .filter(a -> a.getStatus() == ApplicationStatus.PENDING)
+                    .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Application> findAll() {
+        return Collections.unmodifiableList(store);
+    }
+
+    @Override
+    public List<Application> findWithdrawalRequests() {
+        return index.findWithdrawalRequests();
+    }
+
+    @Override
+    public List<Application> findByBooked() {
+        return index.findByStatus(ApplicationStatus.BOOKED);
+    }
+
+    /**
+     * Upserts the applications that were added or changed since the last call.
+     */
+    @Override
+    public void persist() {
+        UnitOfWork.persist(this, table::flush);
+    }
+
+    @Override
+    public void checkpoint() {
+        persist();
+    }
+
+    private void track(Application application) {
+        index.add(application);
+        application.addChangeListener(index::reindex);
+        application.addChangeListener(table::changed);
+    }
+}
@@ -0,0 +1,115 @@
+package repositories;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Connection to the embedded SQL database used by the Jdbc*Repository classes.
+ *
+ * Written against H2 in embedded mode (the default URL keeps the database next to the CSV
+ * files); the driver, lib/h2-2.2.224.jar, is on the classpath with the other jars in lib/. Every table has a surrogate
+ * {@code seq} primary key, which also preserves insertion order, and secondary indexes on the
+ * columns the repositories look rows up by. Registrations, applications and enquiries refer to
+ * their project by its seq, so renaming a project rewrites only its own row; deleting one nulls
+ * the reference, and the rows left without a project are skipped on load. The schema is created
+ * on first use.
+ *
+ * All repositories share the one connection, so access is serialized on this object.
+ */
+public final class JdbcDatabase implements AutoCloseable {
+    public static final String DEFAULT_URL = "jdbc:h2:./data/bto";
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS users ("
+            + "seq BIGINT PRIMARY KEY, role VARCHAR(16) NOT NULL, name VARCHAR(255), nric VARCHAR(16) NOT NULL, "
+            + "age INT, marital_status VARCHAR(16), password VARCHAR(255))",
+        "CREATE INDEX IF NOT EXISTS users_nric ON users(nric)",
+
+        "CREATE TABLE IF NOT EXISTS projects ("
+            + "seq BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, neighborhood VARCHAR(255), flats VARCHAR(1024), "
+            + "open_date DATE, close_date DATE, officer_slots INT, manager_nric VARCHAR(16))",
+        "CREATE INDEX IF NOT EXISTS projects_name ON projects(name)",
+        "CREATE INDEX IF NOT EXISTS projects_manager ON projects(manager_nric)",
+
+        "CREATE TABLE IF NOT EXISTS registrations ("
+            + "seq BIGINT PRIMARY KEY, officer_nric VARCHAR(16) NOT NULL, "
+            + "project_seq BIGINT REFERENCES projects(seq) ON DELETE SET NULL, "
+            + "status VARCHAR(16), submitted_at DATE, reviewed_at DATE)",
+        "CREATE INDEX IF NOT EXISTS registrations_officer ON registrations(officer_nric)",
+        "CREATE INDEX IF NOT EXISTS registrations_project ON registrations(project_seq)",
+
+        "CREATE TABLE IF NOT EXISTS applications ("
+            + "seq BIGINT PRIMARY KEY, applicant_nric VARCHAR(16) NOT NULL, "
+            + "project_seq BIGINT REFERENCES projects(seq) ON DELETE SET NULL, "
+            + "flat_type VARCHAR(16), status VARCHAR(16), request_withdrawal BOOLEAN)",
+        "CREATE INDEX IF NOT EXISTS applications_applicant ON applications(applicant_nric)",
+        "CREATE INDEX IF NOT EXISTS applications_project ON applications(project_seq)",
+        "CREATE INDEX IF NOT EXISTS applications_status ON applications(status)",
+
+        "CREATE TABLE IF NOT EXISTS enquiries ("
+            + "seq BIGINT PRIMARY KEY, enquiry_id INT NOT NULL, applicant_nric VARCHAR(16) NOT NULL, "
+            + "project_seq BIGINT REFERENCES projects(seq) ON DELETE SET NULL, "
+            + "content VARCHAR, response VARCHAR, status VARCHAR(16), "
+            + "created_at TIMESTAMP, last_modified TIMESTAMP, responded_at TIMESTAMP, responded_by VARCHAR(16))",
+        "CREATE INDEX IF NOT EXISTS enquiries_id ON enquiries(enquiry_id)",
+        "CREATE INDEX IF NOT EXISTS enquiries_applicant ON enquiries(applicant_nric)",
+        "CREATE INDEX IF NOT EXISTS enquiries_project ON enquiries(project_seq)",
+    };
+
+    private final String url;
+    private final Connection connection;
+
+    public JdbcDatabase(String url) {
+        this.url = url;
+        try {
+            connection = DriverManager.getConnection(url);
+        } catch (SQLException e) {
+            if ("08001".equals(e.getSQLState()) || e.getMessage().contains("No suitable driver")) {
+                throw new IllegalStateException("No JDBC driver for " + url + " - is lib/h2-2.2.224.jar on the classpath?", e);
+            }
+            throw new RuntimeException("Failed to open database " + url, e);
+        }
+        try {
+            connection.setAutoCommit(false);
+            try (Statement st = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    st.execute(ddl);
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create schema in " + url, e);
+        }
+    }
+
+    /** True if nothing was ever stored, i.e. the CSV data still has to be migrated. */
+    public synchronized boolean isEmpty() {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM users")) {
+            rs.next();
+            return rs.getLong(1) == 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to query " + url, e);
+        }
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.out.println("⚠️ Failed to close database " + url + ": " + e.getMessage());
+        }
+    }
+}
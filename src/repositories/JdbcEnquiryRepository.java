@@ -0,0 +1,110 @@
+package repositories;
+
+import entities.Applicant;
+import entities.BTOProject;
+import entities.Enquiry;
+import entities.User;
+import enums.EnquiryStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-backed implementation of EnquiryRepository. Lookups by id, applicant and project are
+ * answered from an {@link EnquiryIndex}.
+ */
+public class JdbcEnquiryRepository implements EnquiryRepository {
+    private final List<Enquiry> store = new ArrayList<>();
+    private final EnquiryIndex index = new EnquiryIndex();
+    private final JdbcTable<Enquiry> table;
+    private final JdbcProjectRepository projRepo;
+
+    public JdbcEnquiryRepository(JdbcDatabase db, UserRepository userRepo, JdbcProjectRepository projRepo) {
+        this.projRepo = projRepo;
+        this.table = new JdbcTable<>(db, "enquiries",
+            List.of("enquiry_id", "applicant_nric", "project_seq", "content", "response", "status",
+                    "created_at", "last_modified", "responded_at", "responded_by"),
+            e -> new Object[] {
+                e.getEnquiryId(), e.getApplicant().getNric(), projRepo.seqOf(e.getProject()),
+                e.getContent(), e.getResponse(), e.getStatus().name(),
+                e.getCreatedAt(), e.getLastModified(), e.getRespondedAt(),
+                e.getRespondedBy() == null ? null : e.getRespondedBy().getNric()
+            });
+
+        EntityResolver resolver = EntityResolver.of(userRepo);
+        Map<Long, BTOProject> projects = projRepo.bySeq();
+        store.addAll(table.load(rs -> {
+            Applicant applicant = (Applicant) resolver.findUser(rs.getString(3));
+            BTOProject project  = projects.get(rs.getObject(4, Long.class));
+            if (applicant == null || project == null) {
+                System.out.printf("⚠️ Skipping enquiry %d: applicant or project not found%n", rs.getInt(2));
+                return null;
+            }
+            String respondedBy = rs.getString(11);
+            User responder = null;
+            if (respondedBy != null) {
+                responder = resolver.findOfficer(respondedBy);
+                if (responder == null) {
+                    responder = resolver.findManager(respondedBy);
+                }
+            }
+            return new Enquiry(rs.getInt(2), applicant, project, rs.getString(5), rs.getString(6),
+                EnquiryStatus.valueOf(rs.getString(7)),
+                rs.getObject(8, LocalDateTime.class),
+                rs.getObject(9, LocalDateTime.class),
+                rs.getObject(10, LocalDateTime.class),
+                responder);
+        }));
+
+        store.forEach(this::track);
+
+        // sync Enquiry.counter
+        Enquiry.setCounter(store.stream()
+                            .mapToInt(Enquiry::getEnquiryId)
+                            .max().orElse(0) + 1);
+    }
+
+    @Override
+    public void addEnquiry(Enquiry e) {
+        store.add(e);
+        track(e);
+        table.added(e);
+        persist();
+    }
+
+    @Override
+    public List<Enquiry> findByApplicant(String applicantNric) {
+        return index.findByApplicant(applicantNric);
+    }
+
+    @Override
+    public List<Enquiry> findByProject(String projectName) {
+        BTOProject project = projRepo.findByName(projectName);
+        return project == null ? new ArrayList<>() : index.findByProject(project);
+    }
+
+    @Override
+    public List<Enquiry> findAll() {
+        return List.copyOf(store);
+    }
+
+    @Override
+    public Enquiry findById(int enquiryId) {
+        return index.findById(enquiryId);
+    }
+
+    /**
+     * Upserts the enquiries that were added or changed since the last call.
+     */
+    @Override
+    public void persist() {
+        UnitOfWork.persist(this, table::flush);
+    }
+
+    private void track(Enquiry e) {
+        index.add(e);
+        e.addChangeListener(table::changed);
+    }
+}
@@ -0,0 +1,31 @@
+package repositories;
+
+/**
+ * One-shot import of the CSV data into an empty database.
+ */
+public final class JdbcMigrator {
+    private JdbcMigrator() {
+    }
+
+    /**
+     * Copy every entity of the CSV-loaded repositories into the (empty) JDBC repositories.
+     * Runs as one unit of work, so each table is written with a single batch.
+     */
+    public static void migrate(UserRepository csvUsers, ProjectRepository csvProjects,
+                               RegistrationRepository csvRegistrations, ApplicationRepository csvApplications,
+                               EnquiryRepository csvEnquiries,
+                               JdbcUserRepository users, JdbcProjectRepository projects,
+                               JdbcRegistrationRepository registrations, JdbcApplicationRepository applications,
+                               JdbcEnquiryRepository enquiries) {
+        UnitOfWork.run(() -> {
+            csvUsers.findAll().forEach(users::addUser);
+            csvProjects.findAll().forEach(projects::addProject);
+            csvRegistrations.findAll().forEach(registrations::addRegistration);
+            csvApplications.findAll().forEach(applications::addApplication);
+            csvEnquiries.findAll().forEach(enquiries::addEnquiry);
+        });
+        System.out.printf("Migrated %d users, %d projects, %d registrations, %d applications and %d enquiries to the database.%n",
+            users.findAll().size(), projects.findAll().size(), registrations.findAll().size(),
+            applications.findAll().size(), enquiries.findAll().size());
+    }
+}
@@ -0,0 +1,180 @@
+package repositories;
+
+import entities.BTOProject;
+import entities.HDBManager;
+import enums.EligibilityClass;
+import enums.FlatType;
+import enums.VisibilityStatus;
+import filters.ProjectFilter;
+import filters.ProjectPage;
+import utils.DailyClock;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC-backed implementation of ProjectRepository.
+ *
+ * The flat types of a project are kept in one column as "TYPE:available:price" entries
+ * separated by ';', in the project's own order. Approved officers are not stored: they are
+ * derived from the registrations table. The other tables refer to a project by its row key,
+ * which {@link #seqOf} and {@link #bySeq} expose to their repositories. Filtered listings are served from a {@link ProjectIndex}
+ * over the loaded projects.
+ */
+public class JdbcProjectRepository implements ProjectRepository {
+    private final List<BTOProject> store = new ArrayList<>();
+    private final ProjectIndex index = new ProjectIndex();
+    private final JdbcTable<BTOProject> table;
+
+    public JdbcProjectRepository(JdbcDatabase db, UserRepository userRepository) {
+        this.table = new JdbcTable<>(db, "projects",
+            List.of("name", "neighborhood", "flats", "open_date", "close_date", "officer_slots", "manager_nric"),
+            p -> new Object[] {
+                p.getProjectName(), p.getNeighborhood(), encodeFlats(p), p.getOpenDate(), p.getCloseDate(),
+                p.getAvailableOfficerSlots(), p.getManager().getNric()
+            });
+
+        EntityResolver resolver = EntityResolver.of(userRepository);
+        LocalDate today = DailyClock.system().today();
+        store.addAll(table.load(rs -> {
+            String name  = rs.getString(2);
+            LocalDate open  = rs.getObject(5, LocalDate.class);
+            LocalDate close = rs.getObject(6, LocalDate.class);
+            HDBManager mgr  = resolver.findManager(rs.getString(8));
+            if (mgr == null) {
+                throw new IllegalStateException("Manager not found: " + rs.getString(8));
+            }
+            Map<FlatType, Integer> quota = new LinkedHashMap<>();
+            Map<FlatType, Integer> price = new LinkedHashMap<>();
+            decodeFlats(rs.getString(4), quota, price);
+
+            VisibilityStatus vs = (!today.isBefore(open) && !today.isAfter(close))
+                                  ? VisibilityStatus.VISIBLE
+                                  : VisibilityStatus.HIDDEN;
+            return new BTOProject(name, rs.getString(3), quota, price, vs, open, close, rs.getInt(7), mgr);
+        }));
+        store.forEach(this::track);
+    }
+
+    @Override
+    public void addProject(BTOProject project) {
+        store.add(project);
+        track(project);
+        table.added(project);
+        persist();
+    }
+
+    @Override
+    public void removeProject(BTOProject project) {
+        store.remove(project);
+        index.remove(project);
+        table.removed(project);
+        persist();
+    }
+
+    @Override
+    public BTOProject findByName(String projectName) {
+        return index.findByName(projectName);
+    }
+
+    @Override
+    public List<BTOProject> findAll() {
+        return Collections.unmodifiableList(store);
+    }
+
+    @Override
+    public List<BTOProject> findVisible() {
+        return store.stream()
+                    .filter(p -> p.getVisibilityStatus() == VisibilityStatus.VISIBLE)
+                    .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<BTOProject> findByManager(String managerNric) {
+        return index.findByManager(managerNric);
+    }
+
+    @Override
+    public List<BTOProject> findFilteredProjects(ProjectFilter filter) {
+        return index.find(filter, null, Integer.MAX_VALUE).getProjects();
+    }
+
+    @Override
+    public ProjectPage findFilteredProjects(ProjectFilter filter, ProjectPage.Cursor after, int limit) {
+        return index.find(filter, after, limit);
+    }
+
+    @Override
+    public boolean isEligible(EligibilityClass eligibilityClass, BTOProject project) {
+        return index.isEligible(eligibilityClass, project);
+    }
+
+    @Override
+    public List<String> suggestProjectNames(String text, int limit, Predicate<BTOProject> accept) {
+        return index.suggestNames(text, limit, accept);
+    }
+
+    @Override
+    public List<String> suggestNeighborhoods(String text, int limit, Predicate<BTOProject> accept) {
+        return index.suggestNeighborhoods(text, limit, accept);
+    }
+
+    /**
+     * Upserts the projects that were added or changed since the last call and deletes removed ones.
+     */
+    @Override
+    public void persist() {
+        UnitOfWork.persist(this, table::flush);
+    }
+
+    @Override
+    public List<BTOProject> findOverlapping(LocalDate from, LocalDate to) {
+        return index.findOverlapping(from, to);
+    }
+
+    @Override
+    public List<BTOProject> findOverlappingByManager(String managerNric, LocalDate from, LocalDate to) {
+        return index.findOverlappingByManager(managerNric, from, to);
+    }
+
+    /** The row key of {@code project}, or null once it has been removed. */
+    Long seqOf(BTOProject project) {
+        return table.seqOf(project);
+    }
+
+    /** Every project by its row key. */
+    Map<Long, BTOProject> bySeq() {
+        return table.bySeq();
+    }
+
+    private void track(BTOProject project) {
+        index.add(project);
+        project.addChangeListener(index::reindex);
+        project.addChangeListener(table::changed);
+    }
+
+    private static String encodeFlats(BTOProject p) {
+        StringBuilder flats = new StringBuilder();
+        for (Map.Entry<FlatType, Integer> e : p.getFlatsAvailable().entrySet()) {
+            if (flats.length() > 0) {
+                flats.append(';');
+            }
+            flats.append(e.getKey()).append(':').append(e.getValue()).append(':').append(p.getSellingPriceFor(e.getKey()));
+        }
+        return flats.toString();
+    }
+
+    private static void decodeFlats(String flats, Map<FlatType, Integer> quota, Map<FlatType, Integer> price) {
+        if (flats == null || flats.isEmpty()) {
+            return;
+        }
+        for (String entry : flats.split(";")) {
+            String[] parts = entry.split(":");
+            FlatType ft = FlatType.valueOf(parts[0]);
+            quota.put(ft, Integer.parseInt(parts[1]));
+            price.put(ft, Integer.parseInt(parts[2]));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package repositories;
+
+import entities.BTOProject;
+import entities.HDBManager;
+import entities.HDBOfficer;
+import entities.Registration;
+import enums.RegistrationStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-backed implementation of RegistrationRepository. Queries are answered from a
+ * {@link RegistrationIndex}.
+ */
+public class JdbcRegistrationRepository implements RegistrationRepository {
+    private final List<Registration> store = new ArrayList<>();
+    private final RegistrationIndex index = new RegistrationIndex();
+    private final JdbcTable<Registration> table;
+    private final JdbcProjectRepository projectRepo;
+
+    public JdbcRegistrationRepository(JdbcDatabase db, UserRepository userRepo, JdbcProjectRepository projectRepo) {
+        this.projectRepo = projectRepo;
+        this.table = new JdbcTable<>(db, "registrations",
+            List.of("officer_nric", "project_seq", "status", "submitted_at", "reviewed_at"),
+            r -> new Object[] {
+                r.getOfficer().getNric(), projectRepo.seqOf(r.getProject()), r.getStatus().name(),
+                r.getSubmittedAt(), r.getReviewedAt()
+            });
+
+        EntityResolver resolver = EntityResolver.of(userRepo);
+        Map<Long, BTOProject> projects = projectRepo.bySeq();
+        store.addAll(table.load(rs -> {
+            HDBOfficer officer = resolver.findOfficer(rs.getString(2));
+            BTOProject project = projects.get(rs.getObject(3, Long.class));
+            if (officer == null || project == null) {
+                System.out.printf("⚠️ Skipping registration: officer or project not found for NRIC=%s, project=%s%n",
+                    rs.getString(2), rs.getString(3));
+                return null;
+            }
+            return new Registration(officer, project,
+                RegistrationStatus.valueOf(rs.getString(4)),
+                rs.getObject(5, LocalDate.class),
+                rs.getObject(6, LocalDate.class));
+        }));
+        store.forEach(this::track);
+    }
+
+    @Override
+    public void addRegistration(Registration registration) {
+        store.add(registration);
+        track(registration);
+        table.added(registration);
+        persist();
+    }
+
+    @Override
+    public List<Registration> findByOfficer(String officerNric) {
+        return index.findByOfficer(officerNric);
+    }
+
+    @Override
+    public List<Registration> findByProject(String projectName) {
+        BTOProject project = projectRepo.findByName(projectName);
+        return project == null ? new ArrayList<>() : index.findApprovedByProject(project);
+    }
+
+    @Override
+    public List<Registration> findByProject(BTOProject project) {
+        return index.findApprovedByProject(project);
+    }
+
+    @Override
+    public List<Registration> findByStatus(RegistrationStatus status) {
+        return index.findByStatus(status);
+    }
+
+    @Override
+    public Registration findSpecificRegistration(String officerNric, String projectName) {
+        return index.findSpecific(officerNric, projectName);
+    }
+
+    @Override
+    public Registration findSpecificRegistration(String officerNric, BTOProject project) {
+        return index.findSpecific(officerNric, project);
+    }
+
+    @Override
+    public List<Registration> findAll() {
+        return List.copyOf(store);
+    }
+
+    @Override
+    public List<Registration> findByManager(HDBManager manager) {
+        return index.findByManager(manager);
+    }
+
+    /**
+     * Upserts the registrations that were added or changed since the last call.
+     */
+    @Override
+    public void persist() {
+        UnitOfWork.persist(this, table::flush);
+    }
+
+    private void track(Registration registration) {
+        index.add(registration);
+        registration.addChangeListener(index::reindex);
+        registration.addChangeListener(table::changed);
+    }
+}
@@ -0,0 +1,178 @@
+package repositories;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Keeps the rows of one table in step with a repository's in-memory entities.
+ *
+ * The repository stays the identity map: it owns the entity objects that the services mutate.
+ * For every entity the table remembers its row key ({@code seq}). The repository reports each
+ * entity it adds or removes, and each change through the entity's change listener; the table
+ * queues them, and {@link #flush} upserts the changed rows and deletes the removed ones as JDBC
+ * batches in one transaction. A flush costs nothing for the entities that did not change, and
+ * nothing at all when none did.
+ *
+ * Bookings change projects from several threads, so the queue is guarded by this object.
+ */
+final class JdbcTable<E> {
+    /** Builds an entity from the current result row; columns start at index 2 (1 is seq). */
+    @FunctionalInterface
+    interface RowReader<E> {
+        E read(ResultSet rs) throws SQLException;
+    }
+
+    private final JdbcDatabase db;
+    private final String name;
+    private final Function<E, Object[]> toRow;
+    private final String selectSql;
+    private final String upsertSql;
+    private final String deleteSql;
+
+    private final Map<E, Long> seqs = new IdentityHashMap<>(); // every entity in the table or queued for it
+    private final Set<E> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Long> removed = new HashSet<>();
+    private long nextSeq = 1;
+
+    /**
+     * @param columns the table's columns except seq, in the order {@code toRow} returns their values
+     */
+    JdbcTable(JdbcDatabase db, String name, List<String> columns, Function<E, Object[]> toRow) {
+        this.db    = db;
+        this.name  = name;
+        this.toRow = toRow;
+        String cols = String.join(", ", columns);
+        this.selectSql = "SELECT seq, " + cols + " FROM " + name + " ORDER BY seq";
+        this.upsertSql = "MERGE INTO " + name + " (seq, " + cols + ") KEY (seq) VALUES (?"
+                       + ", ?".repeat(columns.size()) + ")";
+        this.deleteSql = "DELETE FROM " + name + " WHERE seq = ?";
+    }
+
+    /**
+     * Read every row in insertion order. Rows for which {@code reader} returns null are skipped.
+     */
+    synchronized List<E> load(RowReader<E> reader) {
+        List<E> entities = new ArrayList<>();
+        synchronized (db) {
+            try (PreparedStatement ps = db.connection().prepareStatement(selectSql);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long seq = rs.getLong(1);
+                    nextSeq = Math.max(nextSeq, seq + 1);
+                    E entity = reader.read(rs);
+                    if (entity != null) {
+                        entities.add(entity);
+                        seqs.put(entity, seq);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to load " + name + " from " + db.getUrl(), e);
+            }
+        }
+        return entities;
+    }
+
+    /** The row key of {@code entity}, or null if it is neither in the table nor queued for it. */
+    synchronized Long seqOf(E entity) {
+        return seqs.get(entity);
+    }
+
+    /** Every entity in the table or queued for it, by row key. */
+    synchronized Map<Long, E> bySeq() {
+        Map<Long, E> entities = new HashMap<>();
+        seqs.forEach((entity, seq) -> entities.put(seq, entity));
+        return entities;
+    }
+
+    /** Queue a new row for {@code entity}. */
+    synchronized void added(E entity) {
+        seqs.put(entity, nextSeq++);
+        changed.add(entity);
+    }
+
+    /** Queue the row of {@code entity} to be rewritten; ignored for entities not in the table. */
+    synchronized void changed(E entity) {
+        if (seqs.containsKey(entity)) {
+            changed.add(entity);
+        }
+    }
+
+    /** Queue the row of {@code entity} to be deleted. */
+    synchronized void removed(E entity) {
+        Long seq = seqs.remove(entity);
+        if (seq != null) {
+            changed.remove(entity);
+            removed.add(seq);
+        }
+    }
+
+    /**
+     * Write the queued changes. If the transaction fails they stay queued for the next flush.
+     */
+    void flush() {
+        Map<Long, Object[]> upserts = new LinkedHashMap<>();
+        List<Long> deletes;
+        synchronized (this) {
+            if (changed.isEmpty() && removed.isEmpty()) {
+                return;
+            }
+            for (E entity : changed) {
+                upserts.put(seqs.get(entity), toRow.apply(entity));
+            }
+            deletes = new ArrayList<>(removed);
+            changed.clear();
+            removed.clear();
+        }
+
+        synchronized (db) {
+            Connection c = db.connection();
+            try {
+                if (!deletes.isEmpty()) {
+                    try (PreparedStatement delete = c.prepareStatement(deleteSql)) {
+                        for (long seq : deletes) {
+                            delete.setLong(1, seq);
+                            delete.addBatch();
+                        }
+                        delete.executeBatch();
+                    }
+                }
+                if (!upserts.isEmpty()) {
+                    try (PreparedStatement upsert = c.prepareStatement(upsertSql)) {
+                        for (Map.Entry<Long, Object[]> row : upserts.entrySet()) {
+                            upsert.setLong(1, row.getKey());
+                            Object[] values = row.getValue();
+                            for (int i = 0; i < values.length; i++) {
+                                upsert.setObject(i + 2, values[i]);
+                            }
+                            upsert.addBatch();
+                        }
+                        upsert.executeBatch();
+                    }
+                }
+                c.commit();
+            } catch (SQLException e) {
+                try {
+                    c.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                requeue(upserts.keySet(), deletes);
+                throw new RuntimeException("Failed to persist " + name + " to " + db.getUrl(), e);
+            }
+        }
+    }
+
+    // Puts back what a failed flush took, unless the entity has been removed since
+    private synchronized void requeue(Set<Long> upserted, List<Long> deletes) {
+        for (Map.Entry<E, Long> entry : seqs.entrySet()) {
+            if (upserted.contains(entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        removed.addAll(deletes);
+    }
+}
@@ -0,0 +1,107 @@
+package repositories;
+
+import entities.Applicant;
+import entities.HDBManager;
+import entities.HDBOfficer;
+import entities.User;
+import enums.MaritalStatus;
+import enums.UserRole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC-backed implementation of UserRepository. Lookups are answered from a {@link UserIndex}.
+ */
+public class JdbcUserRepository implements UserRepository {
+    private final List<User> store = new ArrayList<>();
+    private final UserIndex index = new UserIndex();
+    private final JdbcTable<User> table;
+
+    public JdbcUserRepository(JdbcDatabase db) {
+        this.table = new JdbcTable<>(db, "users",
+            List.of("role", "name", "nric", "age", "marital_status", "password"),
+            u -> new Object[] {
+                u.getRole().name(), u.getName(), u.getNric(), u.getAge(), u.getMaritalStatus().name(), u.getPassword()
+            });
+        store.addAll(table.load(rs -> {
+            String name = rs.getString(3);
+            String nric = rs.getString(4);
+            int age     = rs.getInt(5);
+            MaritalStatus ms = MaritalStatus.valueOf(rs.getString(6));
+            String pwd  = rs.getString(7);
+            return switch (UserRole.valueOf(rs.getString(2))) {
+                case APPLICANT   -> new Applicant(name, nric, age, ms, pwd);
+                case HDB_OFFICER -> new HDBOfficer(name, nric, age, ms, pwd);
+                case HDB_MANAGER -> new HDBManager(name, nric, age, ms, pwd);
+            };
+        }));
+        store.forEach(this::track);
+    }
+
+    @Override
+    public void addUser(User user) {
+        store.add(user);
+        track(user);
+        table.added(user);
+        persist();
+    }
+
+    @Override
+    public User findByNric(String nric) {
+        return index.findByNric(nric);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return store;
+    }
+
+    @Override
+    public List<Applicant> findAllApplicants() {
+        return index.findAllApplicants();
+    }
+
+    @Override
+    public List<HDBOfficer> findAllOfficers() {
+        return index.findAllOfficers();
+    }
+
+    @Override
+    public List<HDBManager> findAllManagers() {
+        return index.findAllManagers();
+    }
+
+    @Override
+    public HDBManager findManagerByName(String name) {
+        return index.findManagerByName(name);
+    }
+
+    @Override
+    public HDBOfficer findOfficerByName(String name) {
+        return index.findOfficerByName(name);
+    }
+
+    @Override
+    public User findOfficerByNric(String nric) {
+        return index.findOfficerByNric(nric);
+    }
+
+    @Override
+    public User findManagerByNric(String nric) {
+        return index.findManagerByNric(nric);
+    }
+
+    /**
+     * Upserts the users that were added or changed since the last call.
+     */
+    @Override
+    public void persist() {
+        UnitOfWork.persist(this, table::flush);
+    }
+
+    private void track(User user) {
+        index.add(user);
+        user.addChangeListener(table::changed);
+    }
+}
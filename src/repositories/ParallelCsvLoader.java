@@ -0,0 +1,117 @@
+package repositories;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Parses a large CSV file on several threads.
+ *
+ * The file is read into one buffer and cut into chunks at record boundaries. The boundaries
+ * are found by stepping through the records with the same {@link BufferedCsvReader} that parses
+ * them, which only records field offsets, so a multi-line quoted value (e.g. enquiry content)
+ * is never split between two chunks and a stray quote inside an unquoted field is read exactly
+ * as the parser reads it. The chunks are parsed on the common ForkJoinPool and the results are
+ * concatenated in file order.
+ *
+ * The row parser runs on pool threads and must only read the current record. Resolving rows
+ * against other repositories is left to the caller, on its own thread, once parsing is done.
+ * Files below {@link #PARALLEL_THRESHOLD} bytes are parsed on the calling thread.
+ */
+final class ParallelCsvLoader {
+    static final int PARALLEL_THRESHOLD = 1 << 20;   // 1 MB
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    private ParallelCsvLoader() {
+    }
+
+    /**
+     * Parse every record after the header line of the file at {@code path}.
+     * Records for which {@code parser} returns null are dropped.
+     */
+    static <R> List<R> load(String path, Function<BufferedCsvReader, R> parser) throws IOException {
+        ByteBuffer buffer = BufferedCsvReader.read(Paths.get(path));
+        int[] bounds = chunkBounds(buffer);
+        if (bounds.length == 2) {
+            return parseChunk(buffer, bounds[0], bounds[1], parser);
+        }
+        return ForkJoinPool.commonPool().invoke(new ChunkTask<>(buffer, bounds, 0, bounds.length - 1, parser));
+    }
+
+    /**
+     * Chunk start offsets followed by the end offset; the first chunk starts after the header.
+     */
+    static int[] chunkBounds(ByteBuffer buffer) {
+        int size = buffer.limit();
+        int chunks = size < PARALLEL_THRESHOLD
+                   ? 1
+                   : Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, size / MIN_CHUNK_SIZE));
+        int chunkSize = size / chunks;
+
+        List<Integer> bounds = new ArrayList<>(chunks + 1);
+        BufferedCsvReader records = new BufferedCsvReader(buffer, 0, size);
+        if (!records.next()) {
+            return new int[] { size, size }; // empty file
+        }
+        bounds.add(records.endOffset()); // after the header
+        int nextTarget = records.endOffset() + chunkSize;
+        while (bounds.size() < chunks && records.next()) {
+            int end = records.endOffset();
+            if (end >= nextTarget && end < size) {
+                bounds.add(end);
+                nextTarget = end + chunkSize;
+            }
+        }
+        bounds.add(size);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <R> List<R> parseChunk(ByteBuffer buffer, int start, int end, Function<BufferedCsvReader, R> parser) {
+        List<R> rows = new ArrayList<>();
+        BufferedCsvReader reader = new BufferedCsvReader(buffer, start, end);
+        while (reader.next()) {
+            R row = parser.apply(reader);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static final class ChunkTask<R> extends RecursiveTask<List<R>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final int[] bounds;
+        private final int from;
+        private final int to;
+        private final Function<BufferedCsvReader, R> parser;
+
+        ChunkTask(ByteBuffer buffer, int[] bounds, int from, int to, Function<BufferedCsvReader, R> parser) {
+            this.buffer = buffer;
+            this.bounds = bounds;
+            this.from   = from;
+            this.to     = to;
+            this.parser = parser;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (to - from == 1) {
+                return parseChunk(buffer, bounds[from], bounds[to], parser);
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask<R> left = new ChunkTask<>(buffer, bounds, from, mid, parser);
+            left.fork();
+            List<R> right = new ChunkTask<>(buffer, bounds, mid, to, parser).compute();
+            List<R> rows = left.join();
+            rows.addAll(right);
+            return rows;
+        }
+    }
+}
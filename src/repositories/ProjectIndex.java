@@ -0,0 +1,551 @@
+package repositories;
+
+import entities.BTOProject;
+import enums.EligibilityClass;
+import enums.FlatType;
+import enums.SortOption;
+import filters.ProjectFilter;
+import filters.ProjectPage;
+import indexes.IntervalTree;
+import indexes.PrefixTrie;
+import indexes.TrigramIndex;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Pre-sorted orderings, a flat type index and substring indexes over the projects of a repository.
+ *
+ * Every {@link SortOption} has its own ordering, so a filtered listing walks the projects
+ * already in the requested order and stops once the page is full, instead of filtering and
+ * re-sorting the whole list on every call. Projects with equal sort keys keep the order in
+ * which they were added, as the stable sort did before. Price and availability also have an
+ * ordering per flat type, holding the projects that offer it, which is used when the listing
+ * is filtered by that flat type.
+ *
+ * The name and location filters are answered by {@link TrigramIndex}es over the project names
+ * and neighbourhoods, the flat type filter by the flat type index. When the most selective of
+ * these matches only a small part of the projects, its matches are sorted directly instead of
+ * walking the ordering past everything that does not match. Price and units-left bounds are
+ * range queries on the per flat type price and availability orderings.
+ *
+ * For every {@link EligibilityClass} a bitmap, indexed by a slot number given to each project,
+ * marks the projects that class may apply for. It only changes when a project's flat types
+ * do, so restricting a listing to an applicant's class evaluates no eligibility rules.
+ *
+ * {@link PrefixTrie}s over the same two fields suggest names for what an applicant typed:
+ * completions first, then names within a typo or two.
+ *
+ * An {@link IntervalTree} over the application windows, [open date, close date], answers which
+ * projects are open on a day or overlap a window; each manager's projects have a tree too.
+ *
+ * Hash maps by name (ignoring case) and by manager NRIC answer the repositories' exact
+ * lookups, in the order the projects were added.
+ *
+ * The orderings are keyed by a copy of the sort field taken when the project was indexed,
+ * so the repository must call {@link #reindex} after a project changes (its change listener
+ * does, e.g. on every booking); the project is then moved in the orderings whose key changed.
+ *
+ * Bookings fire that listener from whichever thread took the unit, so every method locks the
+ * index: updates are applied one at a time and a listing never sees a project half moved.
+ */
+final class ProjectIndex {
+    private final List<Ordering> orderings = new ArrayList<>();
+    private final Map<SortOption, Ordering> bySortOption = new EnumMap<>(SortOption.class);
+    private final Map<SortOption, Map<FlatType, Ordering>> byFlatTypeAndSortOption = new EnumMap<>(SortOption.class);
+    private final Map<FlatType, Set<BTOProject>> byFlatType = new EnumMap<>(FlatType.class);
+    private final Map<EligibilityClass, BitSet> eligible = new EnumMap<>(EligibilityClass.class);
+    private final List<BTOProject> slots = new ArrayList<>(); // project by slot, null once removed
+    private final TrigramIndex<BTOProject> names = new TrigramIndex<>();
+    private final TrigramIndex<BTOProject> neighborhoods = new TrigramIndex<>();
+    private final PrefixTrie<BTOProject> nameTrie = new PrefixTrie<>();
+    private final PrefixTrie<BTOProject> neighborhoodTrie = new PrefixTrie<>();
+    private final IntervalTree<LocalDate, BTOProject> windows = new IntervalTree<>();
+    private final Map<String, IntervalTree<LocalDate, BTOProject>> windowsByManager = new HashMap<>();
+    private final Map<BTOProject, Entry> entries = new IdentityHashMap<>();
+    // projects by upper-cased name and by manager NRIC, each keyed by slot so they keep the order added
+    private final Map<String, NavigableMap<Integer, BTOProject>> byName = new HashMap<>();
+    private final Map<String, NavigableMap<Integer, BTOProject>> byManager = new HashMap<>();
+    private long nextSeq = 0;
+
+    ProjectIndex() {
+        for (EligibilityClass eligibilityClass : EligibilityClass.values()) {
+            eligible.put(eligibilityClass, new BitSet());
+        }
+        for (SortOption option : SortOption.values()) {
+            bySortOption.put(option, newOrdering(option, null));
+            if (option == SortOption.PRICE_ASC || option == SortOption.AVAILABILITY_DESC) {
+                Map<FlatType, Ordering> perType = new EnumMap<>(FlatType.class);
+                for (FlatType type : FlatType.values()) {
+                    perType.put(type, newOrdering(option, type));
+                }
+                byFlatTypeAndSortOption.put(option, perType);
+            }
+        }
+    }
+
+    synchronized void add(BTOProject project) {
+        Entry entry = new Entry(nextSeq++, slots.size(), orderings.size());
+        slots.add(project);
+        entries.put(project, entry);
+        if (project.getManager() != null) {
+            byManager.computeIfAbsent(project.getManager().getNric(), m -> new TreeMap<>()).put(entry.slot, project);
+        }
+        update(project, entry);
+    }
+
+    synchronized void remove(BTOProject project) {
+        Entry entry = entries.remove(project);
+        if (entry == null) {
+            return;
+        }
+        for (Ordering ordering : orderings) {
+            Position position = entry.positions[ordering.id];
+            if (position != null) {
+                ordering.projects.remove(position);
+            }
+        }
+        for (FlatType type : entry.flatTypes) {
+            byFlatType.get(type).remove(project);
+        }
+        for (BitSet projects : eligible.values()) {
+            projects.clear(entry.slot);
+        }
+        slots.set(entry.slot, null);
+        unindex(byName, nameKey(entry.name), entry.slot);
+        if (project.getManager() != null) {
+            unindex(byManager, project.getManager().getNric(), entry.slot);
+        }
+        names.remove(project);
+        neighborhoods.remove(project);
+        nameTrie.remove(entry.name, project);
+        neighborhoodTrie.remove(entry.neighborhood, project);
+        unindexWindow(project, entry);
+    }
+
+    /** Move a changed project to its new places; ignored for projects that are not indexed. */
+    synchronized void reindex(BTOProject project) {
+        Entry entry = entries.get(project);
+        if (entry != null) {
+            update(project, entry);
+        }
+    }
+
+    /**
+     * Up to {@code limit} projects matching {@code filter} in its sort order, starting after
+     * {@code after} (null for the first page). {@code limit} must be at least 1.
+     */
+    synchronized ProjectPage find(ProjectFilter filter, ProjectPage.Cursor after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1, was " + limit);
+        }
+        SortOption sortBy = filter.getSortBy();
+        Ordering ordering = orderingFor(sortBy, filter.getFlatType());
+        Position from = null;
+        if (after != null) {
+            if (after.getSortBy() != sortBy || !(after.getPosition() instanceof Position position)
+                    || position.ordering() != ordering.id) {
+                throw new IllegalArgumentException("Cursor does not belong to a " + sortBy + " listing");
+            }
+            from = position;
+        }
+
+        // one set per criterion in use; a project matches if it is in all of them
+        List<Set<BTOProject>> criteria = new ArrayList<>(3);
+        if (filter.getNormalizedProjectName() != null) {
+            criteria.add(names.matching(filter.getNormalizedProjectName()));
+        }
+        if (filter.getNormalizedLocation() != null) {
+            criteria.add(neighborhoods.matching(filter.getNormalizedLocation()));
+        }
+        if (filter.getFlatType() != null) {
+            criteria.add(byFlatType.getOrDefault(filter.getFlatType(), Set.of()));
+        }
+        if (filter.hasRangeCriteria()) {
+            criteria.add(withinRanges(filter));
+        }
+        if (filter.getEligibilityClass() != null) {
+            criteria.add(new SlotSet(eligible.get(filter.getEligibilityClass())));
+        }
+        criteria.sort(Comparator.comparingInt(Set::size));
+
+        if (!criteria.isEmpty() && criteria.get(0).size() * 2 < entries.size()) {
+            return findAmong(criteria, ordering, sortBy, from, limit);
+        }
+        NavigableMap<Position, BTOProject> projects = from == null
+                                                    ? ordering.projects
+                                                    : ordering.projects.tailMap(from, false);
+        List<BTOProject> page = new ArrayList<>();
+        Position last = null;
+        for (Map.Entry<Position, BTOProject> e : projects.entrySet()) {
+            BTOProject project = e.getValue();
+            if (!matchesAll(criteria, project)) {
+                continue;
+            }
+            // a further match exists, so the page gets a cursor
+            if (page.size() == limit) {
+                return new ProjectPage(page, new ProjectPage.Cursor(sortBy, last));
+            }
+            page.add(project);
+            last = e.getKey();
+        }
+        return new ProjectPage(page, null);
+    }
+
+    // Sorts the matches of the most selective criterion instead of walking the whole ordering
+    private ProjectPage findAmong(List<Set<BTOProject>> criteria, Ordering ordering,
+                                  SortOption sortBy, Position from, int limit) {
+        Comparator<? super Position> order = ordering.projects.comparator();
+        List<Position> matches = new ArrayList<>();
+        for (BTOProject project : criteria.get(0)) {
+            Position position = entries.get(project).positions[ordering.id];
+            if (position != null && (from == null || order.compare(position, from) > 0)
+                    && matchesAll(criteria, project)) {
+                matches.add(position);
+            }
+        }
+        matches.sort(order);
+
+        List<BTOProject> page = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, matches.size()); i++) {
+            page.add(ordering.projects.get(matches.get(i)));
+        }
+        ProjectPage.Cursor next = matches.size() > limit
+                                ? new ProjectPage.Cursor(sortBy, matches.get(limit - 1))
+                                : null;
+        return new ProjectPage(page, next);
+    }
+
+    /** Whether {@code eligibilityClass} may apply for {@code project}, read from its bitmap. */
+    synchronized boolean isEligible(EligibilityClass eligibilityClass, BTOProject project) {
+        Entry entry = entries.get(project);
+        return entry != null && eligible.get(eligibilityClass).get(entry.slot);
+    }
+
+    /** The first project added whose name equals {@code projectName} ignoring case, or null. */
+    synchronized BTOProject findByName(String projectName) {
+        NavigableMap<Integer, BTOProject> named = byName.get(nameKey(projectName));
+        return named == null ? null : named.firstEntry().getValue();
+    }
+
+    /** The projects of the manager with this NRIC, in the order they were added. */
+    synchronized List<BTOProject> findByManager(String managerNric) {
+        NavigableMap<Integer, BTOProject> managed = byManager.get(managerNric);
+        return managed == null ? new ArrayList<>() : new ArrayList<>(managed.values());
+    }
+
+    /** Projects that open by {@code to} and close from {@code from} on, by open date. */
+    synchronized List<BTOProject> findOverlapping(LocalDate from, LocalDate to) {
+        return windows.overlapping(from, to);
+    }
+
+    /** As {@link #findOverlapping}, among the projects of the manager with this NRIC. */
+    synchronized List<BTOProject> findOverlappingByManager(String managerNric, LocalDate from, LocalDate to) {
+        IntervalTree<LocalDate, BTOProject> managed = windowsByManager.get(managerNric);
+        return managed == null ? List.of() : managed.overlapping(from, to);
+    }
+
+    /** Project names for {@code text}, counting only projects that {@code accept} lets through. */
+    synchronized List<String> suggestNames(String text, int limit, Predicate<BTOProject> accept) {
+        return nameTrie.suggest(text, maxTypos(text), limit, accept);
+    }
+
+    /** Neighbourhoods for {@code text}, counting only projects that {@code accept} lets through. */
+    synchronized List<String> suggestNeighborhoods(String text, int limit, Predicate<BTOProject> accept) {
+        return neighborhoodTrie.suggest(text, maxTypos(text), limit, accept);
+    }
+
+    // short input gets no typo allowance, or every key would be a suggestion
+    private static int maxTypos(String text) {
+        return text.length() <= 2 ? 0 : text.length() <= 5 ? 1 : 2;
+    }
+
+    // Projects with a flat type (the filtered one, or any) whose price and units left are within bounds
+    private Set<BTOProject> withinRanges(ProjectFilter filter) {
+        Set<BTOProject> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        FlatType[] types = filter.getFlatType() != null ? new FlatType[] { filter.getFlatType() } : FlatType.values();
+        for (FlatType type : types) {
+            Set<BTOProject> matches = null;
+            if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+                int low  = filter.getMinPrice() != null ? filter.getMinPrice() : Integer.MIN_VALUE;
+                int high = filter.getMaxPrice() != null ? filter.getMaxPrice() : Integer.MAX_VALUE;
+                if (low > high) {
+                    continue;
+                }
+                Ordering byPrice = orderingFor(SortOption.PRICE_ASC, type);
+                matches = identitySet(byPrice.projects.subMap(
+                    new Position(byPrice.id, low, Long.MIN_VALUE), true,
+                    new Position(byPrice.id, high, Long.MAX_VALUE), true).values());
+            }
+            if (filter.getMinUnits() != null) {
+                // most units first, so the projects with enough units are a head of the ordering
+                Ordering byUnits = orderingFor(SortOption.AVAILABILITY_DESC, type);
+                Set<BTOProject> enough = identitySet(byUnits.projects.headMap(
+                    new Position(byUnits.id, filter.getMinUnits(), Long.MAX_VALUE), true).values());
+                matches = matches == null ? enough : intersect(matches, enough);
+            }
+            result.addAll(matches);
+        }
+        return result;
+    }
+
+    private static Set<BTOProject> identitySet(Collection<BTOProject> projects) {
+        Set<BTOProject> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(projects);
+        return set;
+    }
+
+    private static Set<BTOProject> intersect(Set<BTOProject> a, Set<BTOProject> b) {
+        Set<BTOProject> smaller = a.size() <= b.size() ? a : b;
+        Set<BTOProject> larger  = smaller == a ? b : a;
+        Set<BTOProject> both = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BTOProject project : smaller) {
+            if (larger.contains(project)) {
+                both.add(project);
+            }
+        }
+        return both;
+    }
+
+    private Ordering orderingFor(SortOption sortBy, FlatType flatType) {
+        Map<FlatType, Ordering> perType = byFlatTypeAndSortOption.get(sortBy);
+        return perType != null && flatType != null ? perType.get(flatType) : bySortOption.get(sortBy);
+    }
+
+    private static boolean matchesAll(List<Set<BTOProject>> criteria, BTOProject project) {
+        for (Set<BTOProject> matches : criteria) {
+            if (!matches.contains(project)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void update(BTOProject project, Entry entry) {
+        for (Ordering ordering : orderings) {
+            Object key = sortKey(ordering, project);
+            Position previous = entry.positions[ordering.id];
+            if (previous != null && previous.key().equals(key)) {
+                continue;
+            }
+            if (previous != null) {
+                ordering.projects.remove(previous);
+            }
+            Position position = key == null ? null : new Position(ordering.id, key, entry.seq);
+            if (position != null) {
+                ordering.projects.put(position, project);
+            }
+            entry.positions[ordering.id] = position;
+        }
+
+        Set<FlatType> offered = project.getFlatTypes();
+        boolean flatTypesChanged = entry.flatTypes.isEmpty(); // a new entry still needs its eligibility bits
+        for (FlatType type : FlatType.values()) {
+            boolean indexed = entry.flatTypes.contains(type);
+            if (offered.contains(type) && !indexed) {
+                entry.flatTypes.add(type);
+                byFlatType.computeIfAbsent(type, t -> Collections.newSetFromMap(new IdentityHashMap<>())).add(project);
+                flatTypesChanged = true;
+            } else if (!offered.contains(type) && indexed) {
+                entry.flatTypes.remove(type);
+                byFlatType.get(type).remove(project);
+                flatTypesChanged = true;
+            }
+        }
+        if (flatTypesChanged) {
+            for (Map.Entry<EligibilityClass, BitSet> e : eligible.entrySet()) {
+                e.getValue().set(entry.slot, e.getKey().canApplyForAnyOf(entry.flatTypes));
+            }
+        }
+
+        if (!project.getProjectName().equals(entry.name)) {
+            if (entry.name != null) {
+                nameTrie.remove(entry.name, project);
+                unindex(byName, nameKey(entry.name), entry.slot);
+            }
+            entry.name = project.getProjectName();
+            byName.computeIfAbsent(nameKey(entry.name), n -> new TreeMap<>()).put(entry.slot, project);
+            names.put(project, entry.name);
+            nameTrie.put(entry.name, project);
+        }
+        if (!project.getNeighborhood().equals(entry.neighborhood)) {
+            if (entry.neighborhood != null) {
+                neighborhoodTrie.remove(entry.neighborhood, project);
+            }
+            entry.neighborhood = project.getNeighborhood();
+            neighborhoods.put(project, entry.neighborhood);
+            neighborhoodTrie.put(entry.neighborhood, project);
+        }
+
+        if (!project.getOpenDate().equals(entry.openDate) || !project.getCloseDate().equals(entry.closeDate)) {
+            unindexWindow(project, entry);
+            entry.openDate  = project.getOpenDate();
+            entry.closeDate = project.getCloseDate();
+            entry.managerNric = project.getManager() != null ? project.getManager().getNric() : null;
+            // inverted windows are indexed as they are, matching the overlap checks that used to scan
+            windows.put(project, entry.openDate, entry.closeDate);
+            if (entry.managerNric != null) {
+                windowsByManager.computeIfAbsent(entry.managerNric, m -> new IntervalTree<>())
+                                .put(project, entry.openDate, entry.closeDate);
+            }
+        }
+    }
+
+    // names are matched case-insensitively, as findByName always did
+    private static String nameKey(String name) {
+        return name == null ? null : name.toUpperCase(Locale.ROOT);
+    }
+
+    private static void unindex(Map<String, NavigableMap<Integer, BTOProject>> index, String key, int slot) {
+        NavigableMap<Integer, BTOProject> projects = index.get(key);
+        if (projects != null) {
+            projects.remove(slot);
+            if (projects.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void unindexWindow(BTOProject project, Entry entry) {
+        windows.remove(project);
+        IntervalTree<LocalDate, BTOProject> managed = windowsByManager.get(entry.managerNric);
+        if (managed != null) {
+            managed.remove(project);
+            if (managed.size() == 0) {
+                windowsByManager.remove(entry.managerNric);
+            }
+        }
+    }
+
+    // The key the project is ordered by, or null if the ordering does not hold it
+    private static Object sortKey(Ordering ordering, BTOProject project) {
+        FlatType type = ordering.flatType;
+        if (type != null && !project.getFlatTypes().contains(type)) {
+            return null;
+        }
+        return switch (ordering.option) {
+            case PROJECT_ASC, PROJECT_DESC   -> project.getProjectName();
+            case LOCATION_ASC, LOCATION_DESC -> project.getNeighborhood();
+            case CLOSING_DATE_ASC            -> project.getCloseDate();
+            case PRICE_ASC                   -> type != null ? project.getSellingPriceFor(type) : lowestPrice(project);
+            case AVAILABILITY_DESC           -> type != null ? project.getFlatsAvailableFor(type) : totalUnits(project);
+        };
+    }
+
+    // Projects without any flat type sort last by price
+    private static int lowestPrice(BTOProject project) {
+        int lowest = Integer.MAX_VALUE;
+        for (FlatType type : project.getFlatTypes()) {
+            lowest = Math.min(lowest, project.getSellingPriceFor(type));
+        }
+        return lowest;
+    }
+
+    private static int totalUnits(BTOProject project) {
+        int total = 0;
+        for (FlatType type : project.getFlatTypes()) {
+            total += project.getFlatsAvailableFor(type);
+        }
+        return total;
+    }
+
+    private Ordering newOrdering(SortOption option, FlatType flatType) {
+        Ordering ordering = new Ordering(orderings.size(), option, flatType);
+        orderings.add(ordering);
+        return ordering;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Position> comparator(SortOption option) {
+        Comparator<Position> byKey = Comparator.comparing(p -> (Comparable<Object>) p.key());
+        if (option == SortOption.PROJECT_DESC || option == SortOption.LOCATION_DESC
+                || option == SortOption.AVAILABILITY_DESC) {
+            byKey = byKey.reversed();
+        }
+        return byKey.thenComparingLong(Position::seq);
+    }
+
+    // Projects of one sort option, over all flat types or over those offering flatType
+    private static final class Ordering {
+        private final int id;
+        private final SortOption option;
+        private final FlatType flatType;
+        private final NavigableMap<Position, BTOProject> projects;
+
+        Ordering(int id, SortOption option, FlatType flatType) {
+            this.id       = id;
+            this.option   = option;
+            this.flatType = flatType;
+            this.projects = new TreeMap<>(comparator(option));
+        }
+    }
+
+    // Sort key as it was when indexed, plus the insertion sequence to order equal keys
+    private record Position(int ordering, Object key, long seq) {
+    }
+
+    // Read-only view of the projects whose slot bits are set; contains() is a bit test
+    private final class SlotSet extends AbstractSet<BTOProject> {
+        private final BitSet bits;
+        private final int size;
+
+        SlotSet(BitSet bits) {
+            this.bits = bits;
+            this.size = bits.cardinality();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object project) {
+            Entry entry = entries.get(project);
+            return entry != null && bits.get(entry.slot);
+        }
+
+        @Override
+        public Iterator<BTOProject> iterator() {
+            return new Iterator<>() {
+                private int next = bits.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public BTOProject next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    BTOProject project = slots.get(next);
+                    next = bits.nextSetBit(next + 1);
+                    return project;
+                }
+            };
+        }
+    }
+
+    private static final class Entry {
+        private final long seq;
+        private final int slot;
+        private final Position[] positions; // by ordering id, null where the project is not held
+        private final Set<FlatType> flatTypes = EnumSet.noneOf(FlatType.class);
+        // texts the project is in the trigram indexes under; re-indexed only when they change
+        private String name;
+        private String neighborhood;
+        // window and manager the project is in the interval trees under
+        private LocalDate openDate;
+        private LocalDate closeDate;
+        private String managerNric;
+
+        Entry(long seq, int slot, int orderings) {
+            this.seq       = seq;
+            this.slot      = slot;
+            this.positions = new Position[orderings];
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package repositories;
 
 import entities.BTOProject;
+import enums.EligibilityClass;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Predicate;
 import filters.ProjectFilter;
+import filters.ProjectPage;
 
 /**
  * Data-access contract for BTOProject entities.
@@ -27,7 +31,46 @@ public interface ProjectRepository {
     /** List all projects created by a given manager. */
     List<BTOProject> findByManager(String managerNric);
 
+    /**
+     * List the projects whose application window overlaps {@code [from, to]}: those that open
+     * on or before {@code to} and close on or after {@code from}, in order of open date.
+     */
+    List<BTOProject> findOverlapping(LocalDate from, LocalDate to);
+
+    /** As {@link #findOverlapping}, among the projects created by a given manager. */
+    List<BTOProject> findOverlappingByManager(String managerNric, LocalDate from, LocalDate to);
+
+    /** List the projects open for application on {@code day}. */
+    default List<BTOProject> findOpenOn(LocalDate day) {
+        return findOverlapping(day, day);
+    }
+
     List<BTOProject> findFilteredProjects(ProjectFilter filter);
+
+    /**
+     * One page of {@link #findFilteredProjects(ProjectFilter)}: at most {@code limit} projects,
+     * starting after {@code after}, or from the first project if it is null.
+     *
+     * @throws IllegalArgumentException if {@code limit} is less than 1
+     */
+    ProjectPage findFilteredProjects(ProjectFilter filter, ProjectPage.Cursor after, int limit);
+
+    /**
+     * Whether applicants of {@code eligibilityClass} may apply for a flat type {@code project}
+     * offers. Answered from the index, without evaluating the eligibility rules.
+     */
+    boolean isEligible(EligibilityClass eligibilityClass, BTOProject project);
+
+    /**
+     * Up to {@code limit} project names for what was typed: names starting with {@code text}
+     * first, then names that would with a typo or two corrected. Only names of projects that
+     * {@code accept} lets through are suggested.
+     */
+    List<String> suggestProjectNames(String text, int limit, Predicate<BTOProject> accept);
+
+    /** As {@link #suggestProjectNames}, for neighbourhoods. */
+    List<String> suggestNeighborhoods(String text, int limit, Predicate<BTOProject> accept);
+
     /**
      * Overwrite the backing CSV (or other store) with the current in-memory data.
      */
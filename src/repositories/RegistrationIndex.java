@@ -0,0 +1,105 @@
+package repositories;
+
+import entities.BTOProject;
+import entities.HDBManager;
+import entities.Registration;
+import enums.RegistrationStatus;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Indexes over the registrations of a repository: by officer NRIC, by the composite
+ * (officer, project) key, by status, approved registrations per project and by the manager of
+ * the project. Results keep the order the registrations were added in.
+ *
+ * Officers, projects and managers of a registration never change; the repository must call
+ * {@link #reindex} after its status does (its change listener does). Projects are indexed by
+ * identity, so renaming a project keeps its registrations.
+ */
+final class RegistrationIndex {
+    // Registrations are only ever added, so the order a registration was added in is a stable position
+    private final Map<Registration, Integer> positions = new IdentityHashMap<>();
+    private final Map<String, List<Registration>> byOfficer = new HashMap<>();
+    private final Map<OfficerProject, Registration> byOfficerProject = new HashMap<>(); // first per key
+    private final Map<RegistrationStatus, NavigableMap<Integer, Registration>> byStatus = new EnumMap<>(RegistrationStatus.class);
+    private final Map<Registration, RegistrationStatus> indexedStatus = new IdentityHashMap<>();
+    private final Map<BTOProject, NavigableMap<Integer, Registration>> approvedByProject = new IdentityHashMap<>();
+    private final Map<HDBManager, List<Registration>> byManager = new IdentityHashMap<>();
+
+    void add(Registration registration) {
+        positions.put(registration, positions.size());
+        String officer = key(registration.getOfficer().getNric());
+        byOfficer.computeIfAbsent(officer, k -> new ArrayList<>()).add(registration);
+        byOfficerProject.putIfAbsent(new OfficerProject(officer, registration.getProject()), registration);
+        byManager.computeIfAbsent(registration.getProject().getManager(), m -> new ArrayList<>()).add(registration);
+        reindex(registration);
+    }
+
+    /** Move the registration to its status bucket, and in or out of its project's approved set. */
+    void reindex(Registration registration) {
+        RegistrationStatus status = registration.getStatus();
+        RegistrationStatus previous = indexedStatus.put(registration, status);
+        if (previous == status) {
+            return;
+        }
+        int position = positions.get(registration);
+        BTOProject project = registration.getProject();
+        if (previous != null) {
+            byStatus.get(previous).remove(position);
+        }
+        byStatus.computeIfAbsent(status, s -> new TreeMap<>()).put(position, registration);
+        if (status == RegistrationStatus.APPROVED) {
+            approvedByProject.computeIfAbsent(project, p -> new TreeMap<>()).put(position, registration);
+        } else if (previous == RegistrationStatus.APPROVED) {
+            approvedByProject.get(project).remove(position);
+        }
+    }
+
+    List<Registration> findByOfficer(String officerNric) {
+        return new ArrayList<>(byOfficer.getOrDefault(key(officerNric), List.of()));
+    }
+
+    List<Registration> findApprovedByProject(BTOProject project) {
+        NavigableMap<Integer, Registration> approved = approvedByProject.get(project);
+        return approved == null ? new ArrayList<>() : new ArrayList<>(approved.values());
+    }
+
+    List<Registration> findByStatus(RegistrationStatus status) {
+        NavigableMap<Integer, Registration> matches = byStatus.get(status);
+        return matches == null ? new ArrayList<>() : new ArrayList<>(matches.values());
+    }
+
+    // An officer has only a handful of registrations, so matching the name among them is cheap
+    Registration findSpecific(String officerNric, String projectName) {
+        for (Registration r : byOfficer.getOrDefault(key(officerNric), List.of())) {
+            if (r.getProject().getProjectName().equalsIgnoreCase(projectName)) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    Registration findSpecific(String officerNric, BTOProject project) {
+        return byOfficerProject.get(new OfficerProject(key(officerNric), project));
+    }
+
+    List<Registration> findByManager(HDBManager manager) {
+        return new ArrayList<>(byManager.getOrDefault(manager, List.of()));
+    }
+
+    private static String key(String nric) {
+        return nric.toUpperCase(Locale.ROOT);
+    }
+
+    // Composite key; BTOProject does not override equals, so the project part compares by identity
+    private record OfficerProject(String officerNric, BTOProject project) {
+    }
+}
@@ -1,9 +1,12 @@
 package repositories;
 
+import entities.BTOProject;
 import entities.Registration;
 import entities.HDBManager;
+import enums.RegistrationStatus;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Data-access contract for Registration entities.
@@ -18,7 +21,30 @@ public interface RegistrationRepository {
     /** Find all registrations for a given project name. */
     List<Registration> findByProject(String projectName);
 
+    /** Find the approved registrations for this project. */
+    default List<Registration> findByProject(BTOProject project) {
+        return findByProject(project.getProjectName()).stream()
+                   .filter(r -> r.getProject() == project)
+                   .collect(Collectors.toList());
+    }
+
     Registration findSpecificRegistration(String officerNric, String projectName);
+
+    /** Find the officer's registration for this project, or null. */
+    default Registration findSpecificRegistration(String officerNric, BTOProject project) {
+        return findByOfficer(officerNric).stream()
+                   .filter(r -> r.getProject() == project)
+                   .findFirst()
+                   .orElse(null);
+    }
+
+    /** Find every registration currently in the given status. */
+    default List<Registration> findByStatus(RegistrationStatus status) {
+        return findAll().stream()
+                   .filter(r -> r.getStatus() == status)
+                   .collect(Collectors.toList());
+    }
+
     /** Overwrite the backing CSV with current in-memory data. */
     void persist();
 
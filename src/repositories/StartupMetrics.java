@@ -0,0 +1,23 @@
+package repositories;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings collected while the repositories load, reported by Main once startup is done.
+ */
+public final class StartupMetrics {
+    private static final AtomicLong resolutionNanos = new AtomicLong();
+
+    private StartupMetrics() {
+    }
+
+    /** Add time spent resolving NRIC / name references of loaded rows to entities. */
+    public static void addResolutionTime(long nanos) {
+        resolutionNanos.addAndGet(nanos);
+    }
+
+    /** Total time spent on reference resolution, including building the lookup maps. */
+    public static long getResolutionNanos() {
+        return resolutionNanos.get();
+    }
+}
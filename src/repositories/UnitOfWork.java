@@ -0,0 +1,104 @@
+package repositories;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Groups the persist() calls made during one logical operation.
+ *
+ * Inside a unit of work, a repository's persist() only marks the repository as dirty.
+ * When the outermost unit of work ends, every dirty repository is flushed exactly once,
+ * in the order it was first touched. Outside a unit of work persist() writes immediately,
+ * as before. Nested units of work join the outermost one.
+ *
+ * The flush still happens when the operation throws, so whatever was already changed in
+ * memory reaches the backing store just as it did when every persist() wrote directly.
+ */
+public final class UnitOfWork {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private static final AtomicLong requestedWrites = new AtomicLong();
+    private static final AtomicLong performedWrites = new AtomicLong();
+
+    private final Map<Object, Runnable> dirty = new LinkedHashMap<>();
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Run {@code operation} inside a unit of work and flush the repositories it touched.
+     */
+    public static void run(Runnable operation) {
+        call(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run {@code operation} inside a unit of work, flush the repositories it touched, and return its result.
+     */
+    public static <T> T call(Supplier<T> operation) {
+        if (CURRENT.get() != null) {
+            return operation.get(); // joins the enclosing unit of work
+        }
+
+        UnitOfWork uow = new UnitOfWork();
+        CURRENT.set(uow);
+        T result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            CURRENT.remove();
+            try {
+                uow.flush();
+            } catch (RuntimeException flushFailure) {
+                e.addSuppressed(flushFailure);
+            }
+            throw e;
+        }
+        CURRENT.remove();
+        uow.flush();
+        return result;
+    }
+
+    /**
+     * Called by a repository's persist(). Writes immediately when no unit of work is active,
+     * otherwise defers the write until the unit of work ends.
+     */
+    public static void persist(Object repository, Runnable flush) {
+        requestedWrites.incrementAndGet();
+        UnitOfWork uow = CURRENT.get();
+        if (uow == null) {
+            performedWrites.incrementAndGet();
+            flush.run();
+        } else {
+            uow.dirty.putIfAbsent(repository, flush);
+        }
+    }
+
+    /** Number of persist() calls made by repositories. */
+    public static long getRequestedWrites() {
+        return requestedWrites.get();
+    }
+
+    /** Number of writes that actually reached a repository's backing store. */
+    public static long getPerformedWrites() {
+        return performedWrites.get();
+    }
+
+    /** Number of redundant writes that were coalesced away. */
+    public static long getAvoidedWrites() {
+        return requestedWrites.get() - performedWrites.get();
+    }
+
+    private void flush() {
+        for (Runnable write : dirty.values()) {
+            performedWrites.incrementAndGet();
+            write.run();
+        }
+        dirty.clear();
+    }
+}
@@ -0,0 +1,84 @@
+package repositories;
+
+import entities.Applicant;
+import entities.HDBManager;
+import entities.HDBOfficer;
+import entities.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lookup indexes over the users of a repository: by NRIC, officers and managers by NRIC and
+ * by name, and the users of each role in the order they were added.
+ *
+ * NRICs and names are never changed after a user is added, so the keys stay valid for the
+ * user's lifetime. Keys are matched case-insensitively and the first user per key wins, as
+ * the linear scans they replace returned.
+ */
+final class UserIndex {
+    private final Map<String, User> byNric                = new HashMap<>();
+    private final Map<String, HDBOfficer> officersByNric  = new HashMap<>();
+    private final Map<String, HDBOfficer> officersByName  = new HashMap<>();
+    private final Map<String, HDBManager> managersByNric  = new HashMap<>();
+    private final Map<String, HDBManager> managersByName  = new HashMap<>();
+    private final List<Applicant> applicants = new ArrayList<>(); // includes officers, who are applicants too
+    private final List<HDBOfficer> officers  = new ArrayList<>();
+    private final List<HDBManager> managers  = new ArrayList<>();
+
+    void add(User user) {
+        byNric.putIfAbsent(key(user.getNric()), user);
+        if (user instanceof Applicant applicant) {
+            applicants.add(applicant);
+        }
+        if (user instanceof HDBOfficer officer) {
+            officers.add(officer);
+            officersByNric.putIfAbsent(key(officer.getNric()), officer);
+            officersByName.putIfAbsent(key(officer.getName()), officer);
+        }
+        if (user instanceof HDBManager manager) {
+            managers.add(manager);
+            managersByNric.putIfAbsent(key(manager.getNric()), manager);
+            managersByName.putIfAbsent(key(manager.getName()), manager);
+        }
+    }
+
+    User findByNric(String nric) {
+        return byNric.get(key(nric));
+    }
+
+    List<Applicant> findAllApplicants() {
+        return new ArrayList<>(applicants);
+    }
+
+    List<HDBOfficer> findAllOfficers() {
+        return new ArrayList<>(officers);
+    }
+
+    List<HDBManager> findAllManagers() {
+        return new ArrayList<>(managers);
+    }
+
+    HDBOfficer findOfficerByNric(String nric) {
+        return officersByNric.get(key(nric));
+    }
+
+    HDBOfficer findOfficerByName(String name) {
+        return officersByName.get(key(name));
+    }
+
+    HDBManager findManagerByNric(String nric) {
+        return managersByNric.get(key(nric));
+    }
+
+    HDBManager findManagerByName(String name) {
+        return managersByName.get(key(name));
+    }
+
+    private static String key(String s) {
+        return s == null ? null : s.toUpperCase(Locale.ROOT);
+    }
+}
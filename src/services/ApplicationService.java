@@ -5,6 +5,7 @@ import enums.ApplicationStatus;
 import enums.FlatType;
 import repositories.ApplicationRepository;
 import repositories.ProjectRepository;
+import repositories.UnitOfWork;
 
 import java.util.List;
 
@@ -12,12 +13,17 @@ public class ApplicationService {
     private final ApplicationRepository appRepo;
 
     private final ProjectRepository projectRepo;
+    private ProjectService projectService;
 
     public ApplicationService(ApplicationRepository appRepo, ProjectRepository projectRepo) {
         this.appRepo = appRepo;
         this.projectRepo = projectRepo;
     }
 
+    public void setProjectService(ProjectService projectService) {
+        this.projectService = projectService;
+    }
+
     /**
      * Applicant submits a new application. Enforces one-per-user and eligibility.
      */
@@ -32,14 +38,16 @@ public class ApplicationService {
 
         // 2) Eligibility check (age, marital status, flat type)
         if (!EligibilityChecker.isEligible(applicant, project) ||
-            !project.getFlatsAvailable().containsKey(flatType)) {
+            !project.getFlatTypes().contains(flatType)) {
             throw new IllegalArgumentException("You are not eligible for this project or flat type.");
         }
 
-        // 3) Create and persist
+        // 3) Create and persist (one flush for the whole operation)
         Application app = new Application(applicant, project, flatType);
-        appRepo.addApplication(app);
-        appRepo.persist();
+        UnitOfWork.run(() -> {
+            appRepo.addApplication(app);
+            appRepo.persist();
+        });
         return app;
     }
 
@@ -68,21 +76,27 @@ public class ApplicationService {
     
 
     /**
-     * Manager approves or rejects an application.
+     * Manager approves or rejects an application. Approving reserves a unit of the flat type,
+     * which the application holds until it is booked or withdrawn.
      */
     public void reviewApplication(Application app, boolean approve) {
         if (app.getStatus() != ApplicationStatus.PENDING || app.isRequestWithdrawal()) {
             throw new IllegalStateException("Invalid application state for review.");
         }
-        if (approve) {
-            if (app.getProject().getFlatsAvailable().get(app.getFlatType()) <= 0) {
-                throw new IllegalStateException("No more units available.");
+        UnitOfWork.run(() -> {
+            if (approve) {
+                // the atomic check-and-take: of two approvals for the last unit, one gets it
+                if (!app.getProject().tryReserveFlat(app.getFlatType())) {
+                    throw new IllegalStateException("No more units available.");
+                }
+                projectService.catalogChanged();
+                app.setStatus(ApplicationStatus.SUCCESSFUL);
+                projectRepo.persist();
+            } else {
+                app.setStatus(ApplicationStatus.UNSUCCESSFUL);
             }
-            app.setStatus(ApplicationStatus.SUCCESSFUL);
-        } else {
-            app.setStatus(ApplicationStatus.UNSUCCESSFUL);
-        }
-        appRepo.persist();
+            appRepo.persist();
+        });
     }
 
     /**
@@ -93,18 +107,9 @@ public class ApplicationService {
             throw new IllegalStateException("Application is not ready for booking.");
         }
 
-        BTOProject project = app.getProject();
-        FlatType type = app.getFlatType();
-
-        project.removeFlats(type, 1);
-
-
-        // Update status to BOOKED
+        // the unit was reserved when the application was approved
         app.setStatus(ApplicationStatus.BOOKED);
-
-        // Save changes
         appRepo.persist();
-        projectRepo.persist();
 
         return new Receipt(app, officer);
     }
@@ -132,26 +137,31 @@ public class ApplicationService {
             throw new IllegalStateException("No withdrawal request to process.");
         }
     
-        if (approve) {
-            // If the application was already BOOKED, free up the flat
-            if (app.getStatus() == ApplicationStatus.BOOKED) {
+        if (!approve) {
+            throw new IllegalStateException("Withdrawal request rejected by manager.");
+        }
+
+        UnitOfWork.run(() -> {
+            // If the application holds a unit (reserved on approval), free up the flat
+            if (app.getStatus() == ApplicationStatus.SUCCESSFUL
+                    || app.getStatus() == ApplicationStatus.PENDING_BOOKING
+                    || app.getStatus() == ApplicationStatus.BOOKED) {
                 BTOProject project = app.getProject();
                 FlatType flatType = app.getFlatType();
                 // Return the flat
-                project.addFlats(flatType, 1);
-                // Also, if you track “booked” count separately, decrement it here.
+                project.releaseFlat(flatType);
+                projectService.catalogChanged();
+                projectRepo.persist();
             }
             // Mark as withdrawn
             app.setStatus(ApplicationStatus.UNSUCCESSFUL);
-        } else {
-            throw new IllegalStateException("Withdrawal request rejected by manager.");
-        }
-    
-        // Clear the request flag
-        app.setRequestWithdrawal(false);
-    
-        // Persist changes
-        appRepo.persist();
+
+            // Clear the request flag
+            app.setRequestWithdrawal(false);
+
+            // Persist changes
+            appRepo.persist();
+        });
     }
 
     public List<Application> findByBooked() {
@@ -2,6 +2,7 @@ package services;
 
 import entities.User;
 import repositories.UserRepository;
+import repositories.UnitOfWork;
 import enums.MaritalStatus;
 import entities.Applicant;
 import java.util.Optional;
@@ -22,11 +23,11 @@ public class AuthService {
      * @return the authenticated User, or empty if credentials are invalid.
      */
     public User authenticateUser(String nric, String password) {
-        for (User user : userRepo.findAll()) {
-            if (user.getNric().equals(nric) && user.validatePassword(password)) {
-                currentUser = user;
-                return currentUser;
-            }
+        // the lookup ignores case, but login still requires the NRIC exactly as registered
+        User user = userRepo.findByNric(nric);
+        if (user != null && user.getNric().equals(nric) && user.validatePassword(password)) {
+            currentUser = user;
+            return currentUser;
         }
         return null;  // Authentication failed
     }
@@ -66,9 +67,11 @@ public class AuthService {
             return null;  // NRIC already exists
         }
         User newUser = new Applicant(name, nric, age, maritalStatus, password);
-        userRepo.addUser(newUser);
+        UnitOfWork.run(() -> {
+            userRepo.addUser(newUser);
+            userRepo.persist();
+        });
         currentUser = newUser;
-        userRepo.persist();  
         return newUser;
     }
 }
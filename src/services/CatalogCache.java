@@ -0,0 +1,116 @@
+package services;
+
+import entities.BTOProject;
+import filters.ProjectFilter;
+import filters.ProjectPage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Least-recently-used cache of applicant project catalogs.
+ *
+ * An entry is the list of visible projects one eligibility class gets for one filter, in the
+ * filter's sort order, as it was at one catalog version. Applicants of the same class using
+ * the same filter share the entry. Once the version has moved on the entry counts as a miss
+ * and is recomputed.
+ *
+ * An entry is not computed in one go: it is filled one repository page at a time, and only as
+ * far as a caller has asked for, so the first screen of a listing never reads the rest of it.
+ */
+public final class CatalogCache {
+    /** Lookups answered from the cache, lookups that had to compute, and current entries. */
+    public record Stats(long hits, long misses, int size) {
+    }
+
+    private final Map<ProjectFilter.Key, Entry> entries;
+    private long hits;
+    private long misses;
+
+    public CatalogCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ProjectFilter.Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * The catalog for {@code key} at {@code version}. Unless one for that key and version is
+     * cached, a new one is started that reads its pages with {@code pages}: given the cursor
+     * after the last page read (null for the first), it returns the next page.
+     */
+    public synchronized Catalog get(ProjectFilter.Key key, long version,
+                                    Function<ProjectPage.Cursor, ProjectPage> pages) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            hits++;
+            return entry.catalog;
+        }
+        misses++;
+        Catalog catalog = new Catalog(pages);
+        entries.put(key, new Entry(version, catalog));
+        return catalog;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, entries.size());
+    }
+
+    /**
+     * A catalog read so far: the projects of the pages fetched, and the cursor of the next one.
+     */
+    public static final class Catalog {
+        private final Function<ProjectPage.Cursor, ProjectPage> pages;
+        private final List<BTOProject> projects = new ArrayList<>();
+        private ProjectPage.Cursor next;
+        private boolean complete;
+
+        private Catalog(Function<ProjectPage.Cursor, ProjectPage> pages) {
+            this.pages = pages;
+        }
+
+        /** The project at {@code index}, reading pages up to it, or null if the catalog is shorter. */
+        public synchronized BTOProject get(int index) {
+            while (projects.size() <= index && !complete) {
+                fetch();
+            }
+            return index < projects.size() ? projects.get(index) : null;
+        }
+
+        /** Where {@code project} is at or after {@code from}, reading pages until found; -1 if absent. */
+        public synchronized int indexOf(BTOProject project, int from) {
+            BTOProject p;
+            for (int i = from; (p = get(i)) != null; i++) {
+                if (p == project) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /** The whole catalog, reading every page not read yet. */
+        public synchronized List<BTOProject> all() {
+            while (!complete) {
+                fetch();
+            }
+            // no page is added once complete
+            return Collections.unmodifiableList(projects);
+        }
+
+        private void fetch() {
+            ProjectPage page = pages.apply(next);
+            projects.addAll(page.getProjects());
+            next = page.getNext();
+            complete = next == null;
+        }
+    }
+
+    private record Entry(long version, Catalog catalog) {
+    }
+}
@@ -2,6 +2,7 @@ package services;
 
 import entities.Applicant;
 import entities.BTOProject;
+import enums.EligibilityClass;
 import enums.FlatType;
 import enums.MaritalStatus;
 
@@ -12,19 +13,11 @@ import java.util.Set;
 
 public class EligibilityChecker {
     public static boolean isEligible(Applicant applicant, BTOProject project) {
-        Set<FlatType> availableTypes = project.getFlatsAvailable().keySet();
-
-        if (applicant.getMaritalStatus() == MaritalStatus.MARRIED && applicant.getAge() >= 21) {
-            // Married applicants 21+ can apply for both 2-Room and 3-Room
-            return availableTypes.contains(FlatType.TWO_ROOM) || availableTypes.contains(FlatType.THREE_ROOM);
-        }
-
-        if (applicant.getMaritalStatus() == MaritalStatus.SINGLE && applicant.getAge() >= 35) {
-            // Singles 35+ can only apply for 2-Room
-            return availableTypes.contains(FlatType.TWO_ROOM);
-        }
+        return classify(applicant).canApplyForAnyOf(project.getFlatTypes());
+    }
 
-        return false; // Others are not eligible
+    public static EligibilityClass classify(Applicant applicant) {
+        return EligibilityClass.of(applicant.getMaritalStatus(), applicant.getAge());
     }
 
     public static boolean NRICValidator (String nric){
@@ -32,7 +25,7 @@ public class EligibilityChecker {
     }
 
     public static FlatType chooseFlatType(Applicant applicant, BTOProject project, Scanner scanner) {
-        Set<FlatType> availableTypes = project.getFlatsAvailable().keySet();
+        Set<FlatType> availableTypes = project.getFlatTypes();
 
         if (applicant.getMaritalStatus() == MaritalStatus.SINGLE && applicant.getAge() >= 35) {
             if (availableTypes.contains(FlatType.TWO_ROOM)) {
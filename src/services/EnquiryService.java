@@ -3,14 +3,13 @@ package services;
 import entities.Applicant;
 import entities.Enquiry;
 import entities.HDBOfficer;
-import entities.Registration;
 import entities.HDBManager;
 import entities.BTOProject;
 import entities.User;
 import enums.EnquiryStatus;
-import enums.RegistrationStatus;
 import repositories.EnquiryRepository;
-import repositories.RegistrationRepository;
+import repositories.UnitOfWork;
+import utils.DailyClock;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,11 +20,11 @@ import java.util.stream.Collectors;
  */
 public class EnquiryService {
     private final EnquiryRepository repo;
-    private final RegistrationRepository regRepo;
+    private final RegistrationService registrationService;
 
-    public EnquiryService(EnquiryRepository repo, RegistrationRepository regRepo) {
+    public EnquiryService(EnquiryRepository repo, RegistrationService registrationService) {
         this.repo = repo;
-        this.regRepo = regRepo;
+        this.registrationService = registrationService;
     }
 
     /**
@@ -36,8 +35,10 @@ public class EnquiryService {
             throw new IllegalArgumentException("Enquiry content cannot be empty.");
         }
         Enquiry e = new Enquiry(applicant, project, content);
-        repo.addEnquiry(e);
-        repo.persist();
+        UnitOfWork.run(() -> {
+            repo.addEnquiry(e);
+            repo.persist();
+        });
         return e;
     }
 
@@ -99,7 +100,7 @@ public class EnquiryService {
         BTOProject project = e.getProject();
         boolean authorized = false;
         if (responder instanceof HDBOfficer) {
-            authorized = regRepo.findSpecificRegistration(responder.getNric(), project.getProjectName()) != null;
+            authorized = registrationService.findSpecificRegistration(responder.getNric(), project) != null;
         } else if (responder instanceof HDBManager manager) {
             authorized = project.getManager().equals(manager);
         }
@@ -121,21 +122,10 @@ public class EnquiryService {
      * Get all open enquiries for projects handled by this officer.
      */
     public List<Enquiry> listOpenForOfficer(HDBOfficer officer) {
-    LocalDate today = LocalDate.now();
-
-    // 1) All APPROVED registrations for this officer
-    List<Registration> approved = regRepo.findByOfficer(officer.getNric()).stream()
-        .filter(r -> r.getStatus() == RegistrationStatus.APPROVED)
-        .toList();
-
-    // 2) Only those whose project application window is still open
-    List<BTOProject> handling = approved.stream()
-        .map(Registration::getProject)
-        .filter(p ->
-            ( ! today.isBefore(p.getOpenDate()) ) &&
-            ( ! today.isAfter  (p.getCloseDate()) )
-        )
-        .toList();
+    LocalDate today = DailyClock.system().today();
+
+    // 1) + 2) Projects this officer is APPROVED for whose application window is still open
+    List<BTOProject> handling = registrationService.findApprovedProjectsOpenOn(officer.getNric(), today);
 
     // 3) For each such project, grab its enquiries and filter OPEN
     return handling.stream()
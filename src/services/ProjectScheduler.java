@@ -0,0 +1,105 @@
+package services;
+
+import entities.BTOProject;
+import enums.VisibilityStatus;
+import utils.DailyClock;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Shows projects when their application window opens and hides them once it has closed.
+ *
+ * Every project has at most one pending transition, its next boundary: it becomes
+ * {@link VisibilityStatus#VISIBLE} at the start of its open date and
+ * {@link VisibilityStatus#HIDDEN} at the start of the day after its close date. The pending
+ * transitions are kept in a priority queue by day, so checking whether anything is due is a
+ * look at the head of the queue.
+ *
+ * Transitions are applied by {@link #runDue}, on the thread of the request that first reads the
+ * projects on or after the boundary day, so no other thread ever touches the projects and
+ * their indexes. ProjectService calls it at the start of every method that lists projects or
+ * changes a project's visibility, so nothing reads or toggles a visibility that is out of date. Rescheduled or removed projects leave their old queue entry behind; it is
+ * recognised as stale and dropped when it reaches the head.
+ */
+public final class ProjectScheduler {
+    private final DailyClock clock;
+    private final Runnable onTransition;
+    private final PriorityQueue<Transition> queue = new PriorityQueue<>(
+        Comparator.comparing(Transition::day).thenComparingLong(Transition::seq));
+    private final Map<BTOProject, Transition> pending = new IdentityHashMap<>();
+    private long nextSeq;
+
+    /**
+     * @param onTransition run after {@link #runDue} has changed the visibility of any project
+     */
+    public ProjectScheduler(DailyClock clock, Runnable onTransition) {
+        this.clock        = clock;
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Schedule the project's next boundary after today, replacing whatever was pending for it.
+     * Its current visibility is left as it is until that boundary.
+     */
+    public synchronized void schedule(BTOProject project) {
+        scheduleAfter(project, clock.today());
+    }
+
+    public synchronized void unschedule(BTOProject project) {
+        pending.remove(project);
+    }
+
+    /**
+     * Apply every transition due by today, in day order.
+     *
+     * @return the number of projects whose visibility was set
+     */
+    public int runDue() {
+        int applied = 0;
+        synchronized (this) {
+            LocalDate today = clock.today();
+            Transition next;
+            while ((next = queue.peek()) != null && !next.day().isAfter(today)) {
+                queue.poll();
+                if (pending.get(next.project()) != next) {
+                    continue; // rescheduled or removed since
+                }
+                pending.remove(next.project());
+                next.project().setVisibilityStatus(next.status());
+                applied++;
+                // a project whose whole window has passed gets its closing transition right away
+                scheduleAfter(next.project(), next.day());
+            }
+        }
+        if (applied > 0) {
+            onTransition.run();
+        }
+        return applied;
+    }
+
+    // The first boundary of the project strictly after day, if any
+    private void scheduleAfter(BTOProject project, LocalDate day) {
+        pending.remove(project);
+        LocalDate open  = project.getOpenDate();
+        LocalDate close = project.getCloseDate();
+        Transition next = null;
+        if (close.isBefore(open)) {
+            // a window that closes before it opens is never open
+        } else if (day.isBefore(open)) {
+            next = new Transition(open, project, VisibilityStatus.VISIBLE, nextSeq++);
+        } else if (!day.isAfter(close)) {
+            next = new Transition(close.plusDays(1), project, VisibilityStatus.HIDDEN, nextSeq++);
+        }
+        if (next != null) {
+            pending.put(project, next);
+            queue.add(next);
+        }
+    }
+
+    private record Transition(LocalDate day, BTOProject project, VisibilityStatus status, long seq) {
+    }
+}
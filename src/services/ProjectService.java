@@ -4,23 +4,39 @@ import entities.Applicant;
 import entities.BTOProject;
 import entities.HDBManager;
 import entities.HDBOfficer;
+import enums.EligibilityClass;
 import enums.FlatType;
 import enums.VisibilityStatus;
 import filters.ProjectFilter;
+import filters.ProjectPage;
 import repositories.ProjectRepository;
+import repositories.UnitOfWork;
+import utils.DailyClock;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class ProjectService {
+    private static final int MAX_SUGGESTIONS = 5;
+    private static final int CATALOG_CACHE_SIZE = 64;
+    private static final int CATALOG_PAGE_SIZE = 32; // projects read from the repository at a time
     private final ProjectRepository repo;
     private final RegistrationService registrationService;
+    // bumped on every change that can alter what an applicant is listed
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final CatalogCache catalogCache = new CatalogCache(CATALOG_CACHE_SIZE);
+    // shows and hides projects as their application windows open and close
+    private final ProjectScheduler scheduler = new ProjectScheduler(DailyClock.system(), this::catalogChanged);
 
     public ProjectService(ProjectRepository repo, RegistrationService registrationService) {
         this.registrationService = registrationService;
         this.repo = repo;
+        repo.findAll().forEach(scheduler::schedule);
     }
 
     /**
@@ -30,34 +46,148 @@ public class ProjectService {
      */
     public List<BTOProject> getProjectsForApplicant(Applicant applicant,
                                                     ProjectFilter filter) {
-        // 0) if filter is null, fall back to a no‐op filter
-        List<BTOProject> candidates =
-                (filter == null)
-                        ? repo.findAll()                        // get everything
-                        : repo.findFilteredProjects(filter);    // apply the filter
-
-        // 1) visibility + flat‐eligibility
-        List<BTOProject> base = candidates.stream()
-                .filter(p -> p.getVisibilityStatus() == VisibilityStatus.VISIBLE)
-                .filter(p -> EligibilityChecker.isEligible(applicant, p))
+        scheduler.runDue();
+        EligibilityClass eligibility = EligibilityChecker.classify(applicant);
+        Set<BTOProject> registered = registeredProjects(applicant);
+        if (filter == null) {
+            // no filter: everything listed, in the default order
+            filter = new ProjectFilter();
+        }
+        return catalogFor(eligibility, filter, catalogVersion.get()).all().stream()
+                .filter(p -> !registered.contains(p))
                 .collect(Collectors.toList());
+    }
 
-        // 2) officer‐specific rule
-        if (applicant instanceof HDBOfficer officer) {
-            return base.stream()
-                    .filter(p ->
-                            registrationService
-                                    .findSpecificRegistration(officer.getNric(), p.getProjectName())
-                                    == null
-                    )
-                    .collect(Collectors.toList());
+    /**
+     * One screen of {@link #getProjectsForApplicant}: at most {@code pageSize} projects,
+     * continuing after {@code after} (null for the first screen).
+     */
+    public ProjectPage getProjectPageForApplicant(Applicant applicant,
+                                                  ProjectFilter filter,
+                                                  ProjectPage.Cursor after,
+                                                  int pageSize) {
+        scheduler.runDue();
+        long version = catalogVersion.get();
+        CatalogCache.Catalog catalog = catalogFor(EligibilityChecker.classify(applicant), filter, version);
+        int start = 0;
+        if (after != null) {
+            if (after.getSortBy() != filter.getSortBy()
+                    || !(after.getPosition() instanceof CatalogOffset offset)) {
+                throw new IllegalArgumentException("Cursor does not belong to this listing");
+            }
+            start = offset.resumeIn(catalog, version);
+        }
+
+        Set<BTOProject> registered = registeredProjects(applicant);
+        List<BTOProject> projects = new ArrayList<>();
+        int lastIndex = -1;
+        BTOProject p;
+        for (int i = start; (p = catalog.get(i)) != null; i++) {
+            if (registered.contains(p)) {
+                continue;
+            }
+            if (projects.size() == pageSize) {
+                // p is shown too, so there is a next screen
+                BTOProject last = projects.get(pageSize - 1);
+                return new ProjectPage(projects, new ProjectPage.Cursor(filter.getSortBy(),
+                        new CatalogOffset(version, lastIndex + 1, last)));
+            }
+            projects.add(p);
+            lastIndex = i;
+        }
+        return new ProjectPage(projects, null);
+    }
+
+    /**
+     * Record that something an applicant's listing depends on has changed: a project was created,
+     * edited, deleted or shown/hidden (by its manager or as its window opened or closed), or
+     * flats were booked or returned. Cached listings computed
+     * before the call are not served again.
+     */
+    public void catalogChanged() {
+        catalogVersion.incrementAndGet();
+    }
+
+    public CatalogCache.Stats getCatalogCacheStats() {
+        return catalogCache.getStats();
+    }
+
+    // Visible projects the eligibility class may apply for, filtered and sorted; shared by
+    // every applicant of that class. The officer rule is applied by the caller. Read from the
+    // repository a page at a time, as far as callers get.
+    private CatalogCache.Catalog catalogFor(EligibilityClass eligibility, ProjectFilter filter, long version) {
+        ProjectFilter eligibleOnly = filter.withEligibilityClass(eligibility);
+        return catalogCache.get(eligibleOnly.key(), version, after -> {
+            ProjectPage page = repo.findFilteredProjects(eligibleOnly, after, CATALOG_PAGE_SIZE);
+            return new ProjectPage(page.getProjects().stream()
+                    .filter(p -> p.getVisibilityStatus() == VisibilityStatus.VISIBLE)
+                    .collect(Collectors.toList()), page.getNext());
+        });
+    }
+
+    /**
+     * Where the next screen starts: {@code index} in the catalog at {@code version}. If the
+     * catalog has changed since, the next screen starts after {@code last} instead, or at the
+     * same index if that project is no longer listed.
+     */
+    private record CatalogOffset(long version, int index, BTOProject last) {
+        int resumeIn(CatalogCache.Catalog catalog, long current) {
+            if (version != current) {
+                int at = catalog.indexOf(last, 0);
+                // an index past the end of the catalog gives an empty screen
+                return at >= 0 ? at + 1 : index;
+            }
+            return index;
         }
+    }
 
-        // 3) true applicants
-        return base;
+    /**
+     * Project names to offer when {@code typed} is part of no project name the applicant can
+     * see: completions and near misses (typos). Empty when {@code typed} already matches.
+     */
+    public List<String> suggestProjectNames(Applicant applicant, String typed) {
+        ProjectFilter probe = new ProjectFilter();
+        probe.setProjectName(typed);
+        if (!getProjectPageForApplicant(applicant, probe, null, 1).getProjects().isEmpty()) {
+            return List.of();
+        }
+        EligibilityClass eligibility = EligibilityChecker.classify(applicant);
+        Set<BTOProject> registered = registeredProjects(applicant);
+        return repo.suggestProjectNames(typed, MAX_SUGGESTIONS, p -> isListedFor(eligibility, registered, p));
+    }
+
+    /**
+     * As {@link #suggestProjectNames}, for the location (neighbourhood) filter.
+     */
+    public List<String> suggestNeighborhoods(Applicant applicant, String typed) {
+        ProjectFilter probe = new ProjectFilter();
+        probe.setLocation(typed);
+        if (!getProjectPageForApplicant(applicant, probe, null, 1).getProjects().isEmpty()) {
+            return List.of();
+        }
+        EligibilityClass eligibility = EligibilityChecker.classify(applicant);
+        Set<BTOProject> registered = registeredProjects(applicant);
+        return repo.suggestNeighborhoods(typed, MAX_SUGGESTIONS, p -> isListedFor(eligibility, registered, p));
+    }
+
+    // eligibility is read from the repository's per-class bitmap
+    private boolean isListedFor(EligibilityClass eligibility, Set<BTOProject> registered, BTOProject p) {
+        return repo.isEligible(eligibility, p)
+                && p.getVisibilityStatus() == VisibilityStatus.VISIBLE
+                && !registered.contains(p);
+    }
+
+    // The per-user rule: officers are not listed the projects they registered for. Looked up
+    // once per request rather than once per project.
+    private Set<BTOProject> registeredProjects(Applicant applicant) {
+        if (applicant instanceof HDBOfficer officer) {
+            return registrationService.findRegisteredProjects(officer.getNric());
+        }
+        return Set.of();
     }
 
     public List<BTOProject> getProjectsForOfficer(HDBOfficer officer) {
+        scheduler.runDue();
         return repo.findVisible();
     }
 
@@ -117,27 +247,27 @@ public class ProjectService {
             throw new IllegalArgumentException("Closing date must be after opening date");
         }
         // 3) **No overlap with this manager’s existing projects**
-        List<BTOProject> mine = repo.findByManager(manager.getNric());
-        for (BTOProject existing : mine) {
-            LocalDate exOpen  = existing.getOpenDate();
-            LocalDate exClose = existing.getCloseDate();
-            boolean overlaps = !(closeDate.isBefore(exOpen) || openDate.isAfter(exClose));
-            if (overlaps) {
-                throw new IllegalArgumentException(
-                        String.format("New project window [%s–%s] overlaps with your existing project “%s” [%s–%s].",
-                                openDate, closeDate,
-                                existing.getProjectName(),
-                                exOpen, exClose)
-                );
-            }
+        List<BTOProject> overlapping = repo.findOverlappingByManager(manager.getNric(), openDate, closeDate);
+        if (!overlapping.isEmpty()) {
+            BTOProject existing = overlapping.get(0);
+            throw new IllegalArgumentException(
+                    String.format("New project window [%s–%s] overlaps with your existing project “%s” [%s–%s].",
+                            openDate, closeDate,
+                            existing.getProjectName(),
+                            existing.getOpenDate(), existing.getCloseDate())
+            );
         }
         // 4) Construct and persist
         BTOProject proj = new BTOProject(
             projectName, neighborhood, flatsAvailable, sellingPrice,
             visibilityStatus, openDate, closeDate, officerSlots, manager
         );
-        repo.addProject(proj);
-        repo.persist();
+        UnitOfWork.run(() -> {
+            repo.addProject(proj);
+            repo.persist();
+        });
+        scheduler.schedule(proj);
+        catalogChanged();
         return proj;
     }
 
@@ -157,6 +287,8 @@ public class ProjectService {
         if (!project.getManager().equals(manager)) {
             throw new IllegalArgumentException("Only the assigned manager can edit this project");
         }
+        // apply any boundary already passed first, so the manager's visibility is the one that stays
+        scheduler.runDue();
         if (closeDate.isBefore(openDate)) {
             throw new IllegalArgumentException("Closing date must be after opening date");
         }
@@ -168,6 +300,9 @@ public class ProjectService {
         project.setAvailableOfficerSlots(officerSlots);
         project.setOpenDate(openDate);
         project.setCloseDate(closeDate);
+        scheduler.schedule(project);
+        registrationService.projectWindowChanged(project);
+        catalogChanged();
 
         repo.persist();
     }
@@ -179,8 +314,13 @@ public class ProjectService {
         if (!project.getManager().equals(manager)) {
             throw new IllegalArgumentException("Only the assigned manager can delete this project");
         }
-        repo.removeProject(project);
-        repo.persist();
+        UnitOfWork.run(() -> {
+            repo.removeProject(project);
+            repo.persist();
+        });
+        scheduler.unschedule(project);
+        registrationService.projectRemoved(project);
+        catalogChanged();
     }
 
     /**
@@ -190,11 +330,14 @@ public class ProjectService {
         if (!project.getManager().equals(manager)) {
             throw new IllegalArgumentException("Only the assigned manager can toggle visibility");
         }
+        // toggle from today's visibility, not the one before a boundary that has passed
+        scheduler.runDue();
         if (project.getVisibilityStatus() == VisibilityStatus.VISIBLE) {
             project.setVisibilityStatus(VisibilityStatus.HIDDEN);
         } else {
             project.setVisibilityStatus(VisibilityStatus.VISIBLE);
         }
+        catalogChanged();
         repo.persist();
     }
 
@@ -202,6 +345,7 @@ public class ProjectService {
      * Get a projects by manager.
      */
     public List<BTOProject> getProjectsForManager(HDBManager manager) {
+        scheduler.runDue();
         return repo.findByManager(manager.getNric());
     }
 
@@ -209,6 +353,7 @@ public class ProjectService {
      * Get all projects
      */
     public List<BTOProject> getAllProjects() {
+        scheduler.runDue();
         return repo.findAll();
     }
 
@@ -5,24 +5,39 @@ import entities.HDBOfficer;
 import entities.Registration;
 import entities.HDBManager;
 import enums.RegistrationStatus;
+import indexes.IntervalTree;
 import repositories.RegistrationRepository;
+import repositories.UnitOfWork;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Business logic for officer registrations on projects.
+ *
+ * Keeps, per officer, an {@link IntervalTree} over the application windows of the projects the
+ * officer is approved for, so "approved projects overlapping a window" and "approved projects
+ * open today" cost O(log n + k) in that officer's approvals. It is filled from the repository
+ * when the service starts and updated here as registrations are approved; ProjectService reports
+ * the projects whose window is edited or that are deleted.
  */
 public class RegistrationService {
     private final RegistrationRepository repo;
     private final ApplicationService appService;
     private ProjectService projectService;
+    // by officer NRIC, the windows of the projects the officer is approved for
+    private final Map<String, IntervalTree<LocalDate, BTOProject>> approvedWindows = new HashMap<>();
 
     public RegistrationService(RegistrationRepository repo,
                                ApplicationService appService) {
         this.repo       = repo;
         this.appService = appService;
+        repo.findByStatus(RegistrationStatus.APPROVED).forEach(this::indexApproved);
     }
 
     public void setProjectService(ProjectService projectService) {
@@ -42,16 +57,8 @@ public class RegistrationService {
         }
 
         // Rule #2: Only one registration per application window
-        List<Registration> approvedRegs = repo.findByOfficer(officer.getNric()).stream()
-            .filter(r -> r.getStatus() == RegistrationStatus.APPROVED)
-            .toList();
-
-        boolean hasApprovedInWindow = approvedRegs.stream().anyMatch(r ->
-            isOverlapping(
-                r.getProject().getOpenDate(), r.getProject().getCloseDate(),
-                project.getOpenDate(),        project.getCloseDate()
-            )
-        );
+        boolean hasApprovedInWindow = !findApprovedProjectsOverlapping(
+            officer.getNric(), project.getOpenDate(), project.getCloseDate()).isEmpty();
 
         if (hasApprovedInWindow) {
             throw new IllegalStateException(
@@ -60,8 +67,10 @@ public class RegistrationService {
         }
 
         Registration reg = new Registration(officer, project);
-        repo.addRegistration(reg);
-        repo.persist();
+        UnitOfWork.run(() -> {
+            repo.addRegistration(reg);
+            repo.persist();
+        });
 
         return reg;
     }
@@ -74,28 +83,80 @@ public class RegistrationService {
             throw new IllegalStateException("Registration already reviewed.");
         }
     
-        if (approve) {
-            // Check that there is at least one slot remaining
-            BTOProject proj = reg.getProject();
-            if (proj.getAvailableOfficerSlots() <= 0) {
-                throw new IllegalStateException("No officer slots remaining on project " 
-                                                + proj.getProjectName());
-            }
-            reg.setStatus(RegistrationStatus.APPROVED);
-            // Decrement the slot count
-            projectService.decreaseOfficerSlots(proj);
-        } else {
-            reg.setStatus(RegistrationStatus.REJECTED);
+        // Check that there is at least one slot remaining
+        BTOProject proj = reg.getProject();
+        if (approve && proj.getAvailableOfficerSlots() <= 0) {
+            throw new IllegalStateException("No officer slots remaining on project "
+                                            + proj.getProjectName());
         }
-    
-        // mark when it was reviewed
-        reg.setReviewedAt(LocalDate.now());
-    
-        // persist both registration *and* project changes
-        repo.persist();
+
+        UnitOfWork.run(() -> {
+            if (approve) {
+                reg.setStatus(RegistrationStatus.APPROVED);
+                indexApproved(reg);
+                // Decrement the slot count
+                projectService.decreaseOfficerSlots(proj);
+            } else {
+                reg.setStatus(RegistrationStatus.REJECTED);
+            }
+
+            // mark when it was reviewed
+            reg.setReviewedAt(LocalDate.now());
+
+            // persist both registration *and* project changes
+            repo.persist();
+        });
     }
     
 
+    /**
+     * Projects the officer is approved for whose application window overlaps {@code [from, to]},
+     * in order of open date.
+     */
+    public List<BTOProject> findApprovedProjectsOverlapping(String officerNric, LocalDate from, LocalDate to) {
+        IntervalTree<LocalDate, BTOProject> windows = approvedWindows.get(officerNric);
+        return windows == null ? List.of() : windows.overlapping(from, to);
+    }
+
+    /**
+     * Projects the officer is approved for that are open for application on {@code day}.
+     */
+    public List<BTOProject> findApprovedProjectsOpenOn(String officerNric, LocalDate day) {
+        return findApprovedProjectsOverlapping(officerNric, day, day);
+    }
+
+    /**
+     * Record that {@code project}'s application window may have changed, so the officers
+     * approved for it find it under the new dates.
+     */
+    public void projectWindowChanged(BTOProject project) {
+        for (Registration r : repo.findByProject(project)) {
+            indexApproved(r);
+        }
+    }
+
+    /**
+     * Record that {@code project} was deleted: it no longer counts towards its officers' windows.
+     */
+    public void projectRemoved(BTOProject project) {
+        for (Registration r : repo.findByProject(project)) {
+            IntervalTree<LocalDate, BTOProject> windows = approvedWindows.get(r.getOfficer().getNric());
+            if (windows != null) {
+                windows.remove(project);
+            }
+        }
+    }
+
+    // (Re)index an approved registration's project under its current window
+    private void indexApproved(Registration r) {
+        if (r.getStatus() != RegistrationStatus.APPROVED) {
+            return;
+        }
+        BTOProject project = r.getProject();
+        approvedWindows.computeIfAbsent(r.getOfficer().getNric(), nric -> new IntervalTree<>())
+                       .put(project, project.getOpenDate(), project.getCloseDate());
+    }
+
     /**
      * List registrations by project.
      */
@@ -105,22 +166,30 @@ public class RegistrationService {
                    .toList();
     }
 
-    private boolean isOverlapping(LocalDate start1, LocalDate end1,
-                                  LocalDate start2, LocalDate end2) {
-        return !end1.isBefore(start2) && !end2.isBefore(start1);
+    public Registration findSpecificRegistration(String officerNric, String projectName) {
+        return repo.findSpecificRegistration(officerNric, projectName);
     }
 
-    public Registration findSpecificRegistration(String officerNric, String projectName) {
-        return repo.findByOfficer(officerNric).stream()
-                   .filter(r -> r.getProject().getProjectName().equalsIgnoreCase(projectName))
-                   .findFirst()
-                   .orElse(null);
+    public Registration findSpecificRegistration(String officerNric, BTOProject project) {
+        return repo.findSpecificRegistration(officerNric, project);
     }
     
     public List<Registration> findByOfficer(String officerNric) {
         return repo.findByOfficer(officerNric);
     }
 
+    /**
+     * Every project the officer has a registration for, whatever its status, as an identity set.
+     * One lookup of the officer's registrations answers membership for any number of projects.
+     */
+    public Set<BTOProject> findRegisteredProjects(String officerNric) {
+        Set<BTOProject> projects = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Registration r : repo.findByOfficer(officerNric)) {
+            projects.add(r.getProject());
+        }
+        return projects;
+    }
+
     /**
      * List all registrations, regardless of status.
      */
@@ -128,11 +197,15 @@ public class RegistrationService {
         return repo.findAll();
     }
 
+    /**
+     * List all registrations in the given status.
+     */
+    public List<Registration> listByStatus(RegistrationStatus status) {
+        return repo.findByStatus(status);
+    }
+
     public List<Registration> findByManager(HDBManager manager) {
-    // gather all projects this manager owns
-    return repo.findAll().stream()
-        .filter(r -> r.getProject().getManager().equals(manager))
-        .collect(Collectors.toList());
+        return repo.findByManager(manager);
     }
 
 }
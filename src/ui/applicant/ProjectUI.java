@@ -6,11 +6,13 @@ import entities.BTOProject;
 import enums.FlatType;
 import enums.SortOption;
 import filters.ProjectFilter;
+import filters.ProjectPage;
 
 import java.util.List;
 import java.util.Scanner;
 
 public class ProjectUI {
+    private static final int PAGE_SIZE = 10; // projects per screen
     private final Scanner scanner;
     private final ProjectController projController;
     private final ProjectFilter projectFilter;
@@ -22,15 +24,26 @@ public class ProjectUI {
     }
 
     protected void handleViewProjects(Applicant applicant) {
-        List<BTOProject> filteredProjects = projController.getProjectsForApplicants(applicant, projectFilter);
+        ProjectPage page = projController.getProjectPageForApplicants(applicant, projectFilter, null, PAGE_SIZE);
 
-        if (filteredProjects.isEmpty()) {
+        if (page.getProjects().isEmpty()) {
             System.out.println("No projects found matching the current filter settings and your eligibility.");
-        } else {
-            System.out.println("\n=== Eligible Projects ===");
-            for (int i = 0; i < filteredProjects.size(); i++) {
-                System.out.printf("[%d] %s\n", i + 1, filteredProjects.get(i).getSummary());
+            return;
+        }
+        System.out.println("\n=== Eligible Projects ===");
+        int shown = 0;
+        while (true) {
+            for (BTOProject project : page.getProjects()) {
+                System.out.printf("[%d] %s\n", ++shown, project.getSummary());
+            }
+            if (!page.hasNext()) {
+                break;
             }
+            System.out.print("Enter 'n' for more projects, or press Enter to stop: ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("n")) {
+                break;
+            }
+            page = projController.getProjectPageForApplicants(applicant, projectFilter, page.getNext(), PAGE_SIZE);
         }
     }
 
@@ -48,22 +61,28 @@ public class ProjectUI {
 
             switch (subChoice) {
                 case 1 -> handleViewProjects(applicant);
-                case 2 -> changeProjectFilter();
+                case 2 -> changeProjectFilter(applicant);
                 case 3 -> System.out.println("Returning to main menu.");
                 default -> System.out.println("Invalid choice. Please try again.");
             }
         } while (subChoice != 3);
     }
 
-    protected void changeProjectFilter() {
+    protected void changeProjectFilter(Applicant applicant) {
         System.out.println("\n=== Change Filter Settings ===");
 
         System.out.print("Enter Project Name filter (or press Enter to skip): ");
         String projectName = scanner.nextLine().trim();
+        if (!projectName.isEmpty()) {
+            projectName = offerSuggestions(projectName, projController.suggestProjectNames(applicant, projectName));
+        }
         projectFilter.setProjectName(projectName.isEmpty() ? null : projectName);
 
         System.out.print("Enter Location filter (or press Enter to skip): ");
         String location = scanner.nextLine().trim();
+        if (!location.isEmpty()) {
+            location = offerSuggestions(location, projController.suggestNeighborhoods(applicant, location));
+        }
         projectFilter.setLocation(location.isEmpty() ? null : location);
 
         System.out.println("Choose Flat Type filter (or 0 to skip):");
@@ -76,11 +95,18 @@ public class ProjectUI {
         scanner.nextLine();
         projectFilter.setFlatType(flatChoice == 0 ? null : flatTypes[flatChoice - 1]);
 
+        projectFilter.setMinPrice(readBound("Enter minimum price (or press Enter to skip): "));
+        projectFilter.setMaxPrice(readBound("Enter maximum price (or press Enter to skip): "));
+        projectFilter.setMinUnits(readBound("Enter minimum units left (or press Enter to skip): "));
+
         System.out.println("Sort by:");
         System.out.println("1. Project Name ASC");
         System.out.println("2. Project Name DESC");
         System.out.println("3. Location ASC");
         System.out.println("4. Location DESC");
+        System.out.println("5. Price (cheapest first)");
+        System.out.println("6. Units left (most first)");
+        System.out.println("7. Closing date (soonest first)");
         System.out.print("Your choice: ");
         int sortChoice = scanner.nextInt();
         scanner.nextLine();
@@ -89,11 +115,49 @@ public class ProjectUI {
             case 2 -> projectFilter.setSortBy(SortOption.PROJECT_DESC);
             case 3 -> projectFilter.setSortBy(SortOption.LOCATION_ASC);
             case 4 -> projectFilter.setSortBy(SortOption.LOCATION_DESC);
+            case 5 -> projectFilter.setSortBy(SortOption.PRICE_ASC);
+            case 6 -> projectFilter.setSortBy(SortOption.AVAILABILITY_DESC);
+            case 7 -> projectFilter.setSortBy(SortOption.CLOSING_DATE_ASC);
             default -> projectFilter.setSortBy(SortOption.PROJECT_ASC);
         }
 
         System.out.println("Filter updated successfully!");
     }
 
+    // Null when skipped or not a number
+    private Integer readBound(String prompt) {
+        System.out.print(prompt);
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            System.out.println("Not a number, skipped.");
+            return null;
+        }
+    }
 
+    // Lets the applicant swap a filter text that matches nothing for one of the suggestions
+    private String offerSuggestions(String typed, List<String> suggestions) {
+        if (suggestions.isEmpty()) {
+            return typed;
+        }
+        System.out.printf("Nothing matches \"%s\". Did you mean:\n", typed);
+        for (int i = 0; i < suggestions.size(); i++) {
+            System.out.printf("%d. %s\n", i + 1, suggestions.get(i));
+        }
+        System.out.print("Your choice (or press Enter to keep what you typed): ");
+        String choice = scanner.nextLine().trim();
+        try {
+            int index = Integer.parseInt(choice);
+            if (index >= 1 && index <= suggestions.size()) {
+                return suggestions.get(index - 1);
+            }
+        } catch (NumberFormatException e) {
+            // keep what was typed
+        }
+        return typed;
+    }
 }
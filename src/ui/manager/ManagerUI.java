@@ -5,6 +5,7 @@ import entities.*;
 import enums.*;
 import filters.ProjectFilter;
 import ui.BaseUserUI;
+import utils.DailyClock;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -99,8 +100,9 @@ public class ManagerUI extends BaseUserUI {
             LocalDate closeDate = LocalDate.parse(scanner.nextLine().trim());
     
             // Determine initial visibility based on dates
+            LocalDate today = DailyClock.system().today();
             VisibilityStatus visibility = 
-                (LocalDate.now().isBefore(openDate) || LocalDate.now().isAfter(closeDate))
+                (today.isBefore(openDate) || today.isAfter(closeDate))
                 ? VisibilityStatus.HIDDEN
                 : VisibilityStatus.VISIBLE;
     
@@ -300,7 +302,11 @@ public class ManagerUI extends BaseUserUI {
             // fetch list
             List<Registration> regs;
             if (scope == 1) {
-                regs = regController.listAllRegistrations();
+                regs = switch (statusChoice) {
+                    case 1  -> regController.listByStatus(RegistrationStatus.PENDING);
+                    case 2  -> regController.listByStatus(RegistrationStatus.APPROVED);
+                    default -> regController.listAllRegistrations();
+                };
             } else {
                 regs = regController.findByManager(manager);
             }
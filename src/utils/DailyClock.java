@@ -0,0 +1,49 @@
+package utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Today's date, worked out once per day instead of on every call.
+ *
+ * {@link LocalDate#now()} converts the current instant to a date in the time zone each time it
+ * is called. This clock keeps the date together with the instants at which that day starts and
+ * ends, so {@link #today()} is one read of the millisecond clock and two comparisons until the
+ * day changes (or the system clock is set back).
+ */
+public final class DailyClock {
+    private static final DailyClock SYSTEM = new DailyClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day current;
+
+    public DailyClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** The clock of the system's default time zone, shared by the whole application. */
+    public static DailyClock system() {
+        return SYSTEM;
+    }
+
+    public LocalDate today() {
+        Day day = current;
+        long now = clock.millis();
+        if (day == null || now < day.startMillis || now >= day.endMillis) {
+            day = Day.containing(now, clock.getZone());
+            current = day;
+        }
+        return day.date;
+    }
+
+    private record Day(LocalDate date, long startMillis, long endMillis) {
+        static Day containing(long millis, ZoneId zone) {
+            LocalDate date = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+            return new Day(date,
+                           date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                           date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package utils;
+
+import java.util.Locale;
+
+/**
+ * The form project names, neighbourhoods and the queries against them are compared in.
+ */
+public final class SearchText {
+    private SearchText() {
+    }
+
+    /** {@code text} in lower case, independent of the default locale. */
+    public static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
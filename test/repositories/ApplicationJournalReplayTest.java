@@ -0,0 +1,124 @@
+package repositories;
+
+import entities.Applicant;
+import entities.Application;
+import entities.BTOProject;
+import entities.HDBManager;
+import entities.User;
+import enums.ApplicationStatus;
+import enums.FlatType;
+import enums.MaritalStatus;
+import enums.VisibilityStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Replays the journal of a {@link CsvApplicationRepository} whose applicant has two applications:
+ * one withdrawn and rejected, and the one made after it.
+ *
+ * The later application's changes are journalled, and a second repository loaded from the same
+ * files must apply them to that application, not to the applicant's first one. The check is
+ * repeated after a checkpoint has folded the journal into the snapshot. Last, an application is
+ * added and the process "crashes" between writing the snapshot and truncating the journal at a
+ * checkpoint: replaying the left-over ADD record must not add the application a second time.
+ *
+ * Works in a temporary directory; nothing is read from or written to data/. Exits with an
+ * {@link AssertionError} on the first broken check.
+ *
+ * Run with: java -cp out:test-out repositories.ApplicationJournalReplayTest
+ */
+public final class ApplicationJournalReplayTest {
+    private static final String HEADER = "Applicant_Name,Applicant_NRIC,Applicant_Age,Applicant_Marital_Status,Project_Name,Flat_Type,Application_Status,Request_Withdrawal";
+
+    private ApplicationJournalReplayTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("application-journal");
+        try {
+            run(dir);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+        System.out.println("ok: journal updates replayed onto the application they were made to");
+    }
+
+    private static void run(Path dir) throws Exception {
+        HDBManager manager = new HDBManager("Manager", "S0000001A", 40, MaritalStatus.MARRIED, "password");
+        Applicant applicant = new Applicant("Applicant", "S1234567A", 35, MaritalStatus.MARRIED, "password");
+        List<BTOProject> projects = List.of(project("First", manager), project("Second", manager));
+        CsvUserRepository users = new CsvUserRepository(List.<User>of(manager, applicant));
+        CsvProjectRepository projectRepo = new CsvProjectRepository(users, CompletableFuture.completedFuture(null), projects);
+
+        String csv = dir.resolve("ApplicationList.csv").toString();
+        String journal = dir.resolve("ApplicationList.journal").toString();
+        Files.writeString(Path.of(csv), String.join(System.lineSeparator(),
+                HEADER,
+                "Applicant,S1234567A,35,MARRIED,First,TWO_ROOM,UNSUCCESSFUL,true",
+                "Applicant,S1234567A,35,MARRIED,Second,TWO_ROOM,PENDING,false",
+                ""), StandardCharsets.UTF_8);
+
+        CsvApplicationRepository written = load(users, projectRepo, csv, journal);
+        Application later = written.findAll().get(1);
+        later.setStatus(ApplicationStatus.SUCCESSFUL);
+        later.setRequestWithdrawal(true);
+        written.persist();
+        check(Files.readAllLines(Path.of(journal)).size() == 1, "one journal record expected");
+
+        CsvApplicationRepository replayed = load(users, projectRepo, csv, journal);
+        checkRows(replayed, "after replay");
+
+        replayed.checkpoint();
+        check(Files.readAllLines(Path.of(journal)).isEmpty(), "journal not truncated by checkpoint");
+        CsvApplicationRepository checkpointed = load(users, projectRepo, csv, journal);
+        checkRows(checkpointed, "after checkpoint");
+
+        checkpointed.addApplication(new Application(applicant, projects.get(0), FlatType.TWO_ROOM));
+        byte[] unfolded = Files.readAllBytes(Path.of(journal));
+        checkpointed.checkpoint();
+        Files.write(Path.of(journal), unfolded); // as if the journal was never truncated
+        List<Application> recovered = load(users, projectRepo, csv, journal).findAll();
+        check(recovered.size() == 3, "expected 3 applications after the interrupted checkpoint, found " + recovered.size());
+    }
+
+    private static void checkRows(CsvApplicationRepository repository, String when) {
+        List<Application> rows = repository.findAll();
+        check(rows.size() == 2, "two applications expected " + when);
+        Application first = rows.get(0);
+        Application second = rows.get(1);
+        check(first.getProject().getProjectName().equals("First")
+                && first.getStatus() == ApplicationStatus.UNSUCCESSFUL && first.isRequestWithdrawal(),
+              "first application changed " + when);
+        check(second.getProject().getProjectName().equals("Second")
+                && second.getStatus() == ApplicationStatus.SUCCESSFUL && second.isRequestWithdrawal(),
+              "second application not updated " + when);
+    }
+
+    private static CsvApplicationRepository load(CsvUserRepository users, CsvProjectRepository projects,
+                                                 String csv, String journal) {
+        return new CsvApplicationRepository(users, projects, EntityResolver.of(users, projects), csv, journal);
+    }
+
+    private static BTOProject project(String name, HDBManager manager) {
+        return new BTOProject(name, "Town", Map.of(FlatType.TWO_ROOM, 10), Map.of(FlatType.TWO_ROOM, 100_000),
+                              VisibilityStatus.VISIBLE, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                              10, manager);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package repositories;
+
+import entities.BTOProject;
+import entities.HDBManager;
+import entities.User;
+import enums.FlatType;
+import enums.MaritalStatus;
+import enums.SortOption;
+import enums.VisibilityStatus;
+import filters.ProjectFilter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Races booking threads for the last units of a few projects held by a {@link CsvProjectRepository}.
+ *
+ * Every round the threads book two-room flats until none are left and also take and give back
+ * three-room flats of one more project, whose units a manager thread keeps replacing with
+ * {@link BTOProject#setFlatsAvailable}; another thread lists the projects through the
+ * repository's index all the while. Afterwards each project must have sold exactly its units,
+ * its counters and {@link BTOProject#getFlatsAvailable()} must be at 0, and the index must agree:
+ * every project still listed once, none left with units.
+ *
+ * Nothing is read from or written to data/. Exits with an {@link AssertionError} on the first
+ * broken check, or a {@link java.util.concurrent.TimeoutException} if a round hangs.
+ *
+ * Run with: java -cp out:test-out repositories.FlatInventoryStressTest [rounds]
+ */
+public final class FlatInventoryStressTest {
+    private static final int PROJECTS = 4;
+    private static final int UNITS    = 250; // two-room units per project
+    private static final int BOOKERS  = 16;
+    private static final int TIMEOUT_SECONDS = 30; // a corrupted index tends to loop rather than throw
+
+    private FlatInventoryStressTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        for (int round = 0; round < rounds; round++) {
+            runRound();
+        }
+        System.out.printf("ok: %d rounds, %d threads booking %d units each round%n",
+                          rounds, BOOKERS, PROJECTS * UNITS);
+    }
+
+    private static void runRound() throws Exception {
+        HDBManager manager = new HDBManager("Manager", "S0000001A", 40, MaritalStatus.MARRIED, "password");
+        List<BTOProject> projects = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            projects.add(new BTOProject("Project " + i, "Town " + i,
+                                        Map.of(FlatType.TWO_ROOM, UNITS),
+                                        Map.of(FlatType.TWO_ROOM, 100_000 + i, FlatType.THREE_ROOM, 200_000 + i),
+                                        VisibilityStatus.VISIBLE, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                                        10, manager));
+        }
+        BTOProject flipped = new BTOProject("Flipped", "Town", Map.of(), Map.of(FlatType.THREE_ROOM, 300_000),
+                                            VisibilityStatus.VISIBLE, LocalDate.of(2025, 1, 1),
+                                            LocalDate.of(2025, 12, 31), 10, manager);
+        List<BTOProject> held = new ArrayList<>(projects);
+        held.add(flipped);
+        CsvProjectRepository repository = new CsvProjectRepository(
+                new CsvUserRepository(List.<User>of(manager)), CompletableFuture.completedFuture(null), held);
+
+        AtomicInteger[] sold = new AtomicInteger[PROJECTS];
+        for (int i = 0; i < PROJECTS; i++) {
+            sold[i] = new AtomicInteger();
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(BOOKERS + 2, task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true); // so a timed-out round does not keep the JVM alive
+            return thread;
+        });
+        List<Future<?>> bookers = new ArrayList<>();
+        List<Future<?>> others = new ArrayList<>();
+
+        for (int t = 0; t < BOOKERS; t++) {
+            bookers.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                boolean anyLeft = true;
+                while (anyLeft) {
+                    anyLeft = false;
+                    int first = random.nextInt(PROJECTS);
+                    for (int k = 0; k < PROJECTS; k++) {
+                        int i = (first + k) % PROJECTS;
+                        if (projects.get(i).tryReserveFlat(FlatType.TWO_ROOM)) {
+                            sold[i].incrementAndGet();
+                            anyLeft = true;
+                            break;
+                        }
+                    }
+                    if (flipped.tryReserveFlat(FlatType.THREE_ROOM)) {
+                        check(flipped.getFlatsAvailableFor(FlatType.THREE_ROOM) >= 0, "three-room count below 0");
+                        flipped.releaseFlat(FlatType.THREE_ROOM);
+                    }
+                }
+                return null;
+            }));
+        }
+        // a manager offering and withdrawing the three-room units while the bookings run
+        others.add(pool.submit(() -> {
+            start.await();
+            boolean offered = false;
+            while (!done.get()) {
+                flipped.setFlatsAvailable(offered ? Map.of() : Map.of(FlatType.THREE_ROOM, 5));
+                offered = !offered;
+            }
+            return null;
+        }));
+        // an applicant listing what is left, through the index the bookings keep moving projects in
+        others.add(pool.submit(() -> {
+            start.await();
+            ProjectFilter filter = new ProjectFilter();
+            filter.setFlatType(FlatType.TWO_ROOM);
+            filter.setMinUnits(1);
+            filter.setSortBy(SortOption.AVAILABILITY_DESC);
+            while (!done.get()) {
+                for (BTOProject project : repository.findFilteredProjects(filter)) {
+                    check(project.getFlatTypes().contains(FlatType.TWO_ROOM),
+                          project.getProjectName() + " listed without two-room flats");
+                }
+                Map<FlatType, Integer> left = flipped.getFlatsAvailable();
+                check(left.values().stream().allMatch(n -> n >= 0), "negative count " + left);
+            }
+            return null;
+        }));
+
+        start.countDown();
+        for (Future<?> booker : bookers) {
+            booker.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        for (Future<?> other : others) {
+            other.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        for (int i = 0; i < PROJECTS; i++) {
+            BTOProject project = projects.get(i);
+            check(sold[i].get() == UNITS, project.getProjectName() + " sold " + sold[i] + " of " + UNITS);
+            check(project.getFlatsAvailableFor(FlatType.TWO_ROOM) == 0,
+                  project.getProjectName() + " has " + project.getFlatsAvailableFor(FlatType.TWO_ROOM) + " left");
+            check(!project.hasFlatsAvailable(FlatType.TWO_ROOM), project.getProjectName() + " still has units");
+            Map<FlatType, Integer> left = project.getFlatsAvailable();
+            check(left.get(FlatType.TWO_ROOM) == 0, project.getProjectName() + " reports " + left);
+            check(left.keySet().equals(project.getFlatTypes()),
+                  project.getProjectName() + " offers " + project.getFlatTypes() + " but counts " + left);
+        }
+
+        ProjectFilter withUnits = new ProjectFilter();
+        withUnits.setFlatType(FlatType.TWO_ROOM);
+        withUnits.setMinUnits(1);
+        withUnits.setSortBy(SortOption.AVAILABILITY_DESC);
+        List<BTOProject> listed = repository.findFilteredProjects(withUnits);
+        check(listed.isEmpty(), "index still lists " + listed.size() + " projects with two-room units");
+
+        ProjectFilter everything = new ProjectFilter();
+        everything.setSortBy(SortOption.AVAILABILITY_DESC);
+        List<BTOProject> all = repository.findFilteredProjects(everything);
+        check(all.size() == held.size() && all.containsAll(held),
+              "index lists " + all.size() + " projects instead of " + held.size());
+        check(flipped.getFlatsAvailable().keySet().equals(flipped.getFlatTypes()),
+              "Flipped offers " + flipped.getFlatTypes() + " but counts " + flipped.getFlatsAvailable());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}